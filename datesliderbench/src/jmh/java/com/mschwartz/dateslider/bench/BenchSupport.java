@@ -0,0 +1,49 @@
+package com.mschwartz.dateslider.bench;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Helpers shared by the benchmarks to set up the boundaries and start times the same way
+ * the SliderContainer does.
+ */
+final class BenchSupport {
+
+    /**
+     * Window value meaning "no startHour/endHour restriction"
+     */
+    static final String NO_WINDOW = "none";
+
+    private BenchSupport() {
+    }
+
+    /**
+     * Creates the boundaries for the given parameters.
+     *
+     * @param minuteInterval the minute interval
+     * @param window         either {@link #NO_WINDOW} or "startHour-endHour", e.g. "8-17"
+     * @param timezone       the id of the timezone
+     */
+    static TimeBoundaries boundaries(int minuteInterval, String window, String timezone) {
+        TimeBoundaries timeBoundaries = new TimeBoundaries();
+        timeBoundaries.setMinuteInterval(minuteInterval);
+        timeBoundaries.setTimezone(TimeZone.getTimeZone(timezone));
+        if (!NO_WINDOW.equals(window)) {
+            String[] hours = window.split("-");
+            timeBoundaries.setHours(Integer.parseInt(hours[0]), Integer.parseInt(hours[1]));
+        }
+        return timeBoundaries;
+    }
+
+    /**
+     * Returns a display time inside the allowed window, 10:00 on the given date in the boundaries timezone.
+     */
+    static long startTime(TimeBoundaries timeBoundaries, int year, int month, int day) {
+        Calendar c = Calendar.getInstance(timeBoundaries.timezone);
+        c.clear();
+        c.set(year, month, day, 10, 0, 0);
+        return c.getTimeInMillis();
+    }
+}
@@ -0,0 +1,101 @@
+package com.mschwartz.dateslider.bench;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+import com.mschwartz.dateslider.labeler.DayTimeLabeler;
+import com.mschwartz.dateslider.labeler.HourTimeLabeler;
+import com.mschwartz.dateslider.labeler.MinuteTimeLabeler;
+import com.mschwartz.dateslider.labeler.MonthTimeLabeler;
+import com.mschwartz.dateslider.labeler.TimeLabeler;
+import com.mschwartz.dateslider.labeler.WeekTimeLabeler;
+import com.mschwartz.dateslider.labeler.YearTimeLabeler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+
+/**
+ * Measures the time arithmetic of the concrete labelers the way a ScrollLayout drives them: getElem() for the center
+ * view and add() for every other view and every scroll step. getRange() labels a whole row of a wide layout at once,
+ * addCached() is a scroll step back to elements which have been shown before.
+ * <p/>
+ * The labelers of the android library delegate add() and getElem() to these core labelers, so this is the arithmetic
+ * the rows of a ScrollLayout run.
+ */
+@State(Scope.Thread)
+public class LabelerBenchmark {
+
+    @Param({"minute", "hour", "day", "week", "month", "year"})
+    public String labeler;
+
+    @Param({"1", "15", "30"})
+    public int minuteInterval;
+
+    @Param({BenchSupport.NO_WINDOW, "8-17"})
+    public String window;
+
+    @Param({"UTC", "Europe/Vienna"})
+    public String timezone;
+
+    @Param({"1", "-1", "60"})
+    public int steps;
+
+    /**
+     * The number of children of a ScrollLayout on a tablet in landscape
+     */
+    private static final int ROW_LENGTH = 21;
+
+    private TimeLabeler mLabeler;
+
+    private final TimeObject[] row = new TimeObject[ROW_LENGTH];
+
+    private long time;
+
+    @Setup
+    public void setup() {
+        TimeBoundaries timeBoundaries = BenchSupport.boundaries(minuteInterval, window, timezone);
+        mLabeler = createLabeler(labeler, timeBoundaries);
+        time = mLabeler.getElem(BenchSupport.startTime(timeBoundaries, 2017, Calendar.MARCH, 25)).getDisplayTime();
+    }
+
+    static TimeLabeler createLabeler(String name, TimeBoundaries timeBoundaries) {
+        if ("minute".equals(name))
+            return new MinuteTimeLabeler("%tM", timeBoundaries);
+        if ("hour".equals(name))
+            return new HourTimeLabeler("%tH", timeBoundaries);
+        if ("day".equals(name))
+            return new DayTimeLabeler("%td %ta", timeBoundaries);
+        if ("week".equals(name))
+            return new WeekTimeLabeler("week %d", timeBoundaries);
+        if ("month".equals(name))
+            return new MonthTimeLabeler("%tb %tY", timeBoundaries);
+        if ("year".equals(name))
+            return new YearTimeLabeler("%tY", timeBoundaries);
+        throw new IllegalArgumentException("Unknown labeler " + name);
+    }
+
+    @Benchmark
+    public TimeObject add() {
+        return mLabeler.add(time, steps);
+    }
+
+    @Benchmark
+    public TimeObject addCached() {
+        return mLabeler.addCached(time, steps);
+    }
+
+    @Benchmark
+    public TimeObject getElem() {
+        return mLabeler.getElem(time);
+    }
+
+    @Benchmark
+    public TimeObject[] getRange() {
+        mLabeler.getRange(time, row, ROW_LENGTH / 2);
+        return row;
+    }
+}
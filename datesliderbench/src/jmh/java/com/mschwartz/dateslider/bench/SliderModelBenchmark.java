@@ -0,0 +1,84 @@
+package com.mschwartz.dateslider.bench;
+
+import com.mschwartz.dateslider.SliderModel;
+import com.mschwartz.dateslider.TimeBoundaries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+
+/**
+ * Measures a drag over a row of a slider without any view: every invocation scrolls the model by
+ * the given number of pixels and calculates the time the other rows follow, the way a
+ * ScrollLayout does on every touch move. The direction changes once a layout width has been
+ * scrolled, so the model stays within the same weeks.
+ */
+@State(Scope.Thread)
+public class SliderModelBenchmark {
+
+    @Param({"minute", "day", "month"})
+    public String labeler;
+
+    @Param({BenchSupport.NO_WINDOW, "8-17"})
+    public String window;
+
+    /**
+     * The scroll distance of one touch move in pixels, 150 is one slot
+     */
+    @Param({"7", "150", "1200"})
+    public int distance;
+
+    /**
+     * The size of a ScrollLayout on a phone in portrait
+     */
+    private static final int WIDTH = 1080;
+
+    private static final int SLOT_WIDTH = 150;
+
+    private SliderModel model;
+
+    private int direction = 1;
+
+    private int origin;
+
+    @Setup
+    public void setup() {
+        TimeBoundaries timeBoundaries = BenchSupport.boundaries(1, window, "Europe/Vienna");
+        model = new SliderModel(LabelerBenchmark.createLabeler(labeler, timeBoundaries));
+        model.setListener(new SliderModel.Listener() {
+            @Override
+            public void onSlotsChanged() {
+            }
+
+            @Override
+            public void onSlotsMoved(int steps) {
+            }
+
+            @Override
+            public void onScrollChanged(int viewScrollX) {
+            }
+
+            @Override
+            public void onLimitReached() {
+            }
+        });
+        model.setTime(BenchSupport.startTime(timeBoundaries, 2017, Calendar.MARCH, 25));
+        model.setSize(WIDTH, SLOT_WIDTH);
+        model.resetScroll();
+        origin = model.getScrollX();
+    }
+
+    @Benchmark
+    public long drag() {
+        int x = model.getScrollX() + direction * distance;
+        if (Math.abs(x - origin) > WIDTH) {
+            direction = -direction;
+        }
+        model.scrollTo(x, true);
+        return model.updateCurrentTime();
+    }
+}
@@ -0,0 +1,73 @@
+package com.mschwartz.dateslider.bench;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+import com.mschwartz.dateslider.labeler.Util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+
+/**
+ * Measures the Util.add*() methods, i.e. the cost of one scroll step of a ScrollLayout.
+ * The start time is the saturday before the european DST switch so that larger steps cross it.
+ */
+@State(Scope.Thread)
+public class UtilAddBenchmark {
+
+    @Param({"1", "15", "30"})
+    public int minuteInterval;
+
+    @Param({BenchSupport.NO_WINDOW, "8-17"})
+    public String window;
+
+    @Param({"UTC", "Europe/Vienna"})
+    public String timezone;
+
+    @Param({"1", "-1", "60"})
+    public int steps;
+
+    private TimeBoundaries timeBoundaries;
+
+    private long time;
+
+    @Setup
+    public void setup() {
+        timeBoundaries = BenchSupport.boundaries(minuteInterval, window, timezone);
+        time = BenchSupport.startTime(timeBoundaries, 2017, Calendar.MARCH, 25);
+    }
+
+    @Benchmark
+    public TimeObject addMinutes() {
+        return Util.addMinutes(time, steps, "%tM", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject addHours() {
+        return Util.addHours(time, steps, "%tH", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject addDays() {
+        return Util.addDays(time, steps, "%td %ta", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject addWeeks() {
+        return Util.addWeeks(time, steps, "week %d", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject addMonths() {
+        return Util.addMonths(time, steps, "%tb %tY", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject addYears() {
+        return Util.addYears(time, steps, "%tY", timeBoundaries);
+    }
+}
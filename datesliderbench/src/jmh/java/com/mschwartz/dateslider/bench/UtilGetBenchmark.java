@@ -0,0 +1,78 @@
+package com.mschwartz.dateslider.bench;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+import com.mschwartz.dateslider.labeler.Util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Calendar;
+
+/**
+ * Measures the Util.get*() builders which turn a point in time into a TimeObject. The get*()
+ * methods modify the given calendar, so it is reset to the start time on every invocation.
+ */
+@State(Scope.Thread)
+public class UtilGetBenchmark {
+
+    @Param({"1", "15", "30"})
+    public int minuteInterval;
+
+    @Param({BenchSupport.NO_WINDOW, "8-17"})
+    public String window;
+
+    @Param({"UTC", "Europe/Vienna"})
+    public String timezone;
+
+    private TimeBoundaries timeBoundaries;
+
+    private long time;
+
+    private Calendar calendar;
+
+    @Setup
+    public void setup() {
+        timeBoundaries = BenchSupport.boundaries(minuteInterval, window, timezone);
+        time = BenchSupport.startTime(timeBoundaries, 2017, Calendar.MARCH, 26);
+        calendar = Calendar.getInstance(timeBoundaries.timezone);
+    }
+
+    private Calendar calendar() {
+        calendar.setTimeInMillis(time);
+        return calendar;
+    }
+
+    @Benchmark
+    public TimeObject getMinute() {
+        return Util.getMinute(calendar(), "%tM", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject getHour() {
+        return Util.getHour(calendar(), "%tH", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject getDay() {
+        return Util.getDay(calendar(), "%td %ta", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject getWeek() {
+        return Util.getWeek(calendar(), "week %d", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject getMonth() {
+        return Util.getMonth(calendar(), "%tb %tY", timeBoundaries);
+    }
+
+    @Benchmark
+    public TimeObject getYear() {
+        return Util.getYear(calendar(), "%tY", timeBoundaries);
+    }
+}
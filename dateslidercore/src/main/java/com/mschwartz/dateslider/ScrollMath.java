@@ -0,0 +1,126 @@
+package com.mschwartz.dateslider;
+
+/**
+ * The arithmetic behind a ScrollLayout: the mapping between the scroll position of a row of
+ * equally sized elements and the time represented by the centered element. It does not
+ * depend on android so the same rules can be used outside of the views.
+ */
+public class ScrollMath {
+
+    private ScrollMath() {
+    }
+
+    /**
+     * Calculates which fraction of the center element lies left of the center of the layout.
+     *
+     * @param width      the width of the layout in pixels
+     * @param childCount the number of elements, always odd
+     * @param objWidth   the width of one element in pixels
+     * @param scrollX    the current scroll position of the layout
+     * @return a value from 0 (the center is at the start of the center element) to 1 (the center is at its end)
+     */
+    public static double calculateF(int width, int childCount, int objWidth, int scrollX) {
+        double center = width / 2.0;
+        long left = (childCount / 2) * objWidth - scrollX;
+        double f = (center - left) / (double) objWidth;
+        assert (f >= 0 && f <= 1);
+        return f;
+    }
+
+    /**
+     * @return the time at the given fraction of the element
+     */
+    public static long timeAt(TimeObject timeObject, double f) {
+        return (long) (timeObject.getStartTime() + (timeObject.getEndTime() - timeObject.getStartTime()) * f);
+    }
+
+    /**
+     * @return the fraction of the element where the given time is located. This is the reverse of {@link #timeAt(TimeObject, double)}
+     */
+    public static double fractionOf(TimeObject timeObject, long time) {
+        double diff = timeObject.getEndTime() - timeObject.getStartTime();
+        return (time - timeObject.getStartTime()) / diff;
+    }
+
+    /**
+     * Estimates the time which will be in the center after scrolling by scrollDiff pixels. The
+     * estimation assumes that all elements span the same amount of time as the center element.
+     *
+     * @param center   the center element
+     * @param f        the current fraction, see {@link #calculateF(int, int, int, int)}
+     * @param scrollDiff the number of pixels to scroll
+     * @param objWidth the width of one element in pixels
+     */
+    public static long estimateTime(TimeObject center, double f, int scrollDiff, int objWidth) {
+        return (long) (center.getStartTime() + (f - ((double) -scrollDiff) / objWidth) * (center.getEndTime() - center.getStartTime()));
+    }
+
+    /**
+     * Calculates by how many pixels the scroll distance must be reduced so that the given limit is
+     * not surpassed.
+     *
+     * @param currentTime   the time currently in the center
+     * @param limit         the minTime or maxTime which must not be surpassed
+     * @param estimatedTime the time estimated by {@link #estimateTime(TimeObject, double, int, int)}
+     * @param scrollDiff    the number of pixels to scroll
+     */
+    public static int limitDeviation(long currentTime, long limit, long estimatedTime, int scrollDiff) {
+        return scrollDiff - (int) Math.round(((double) (currentTime - limit)) / (currentTime - estimatedTime) * scrollDiff);
+    }
+
+    /**
+     * Calculates the scroll position at which the given fraction of another element is in the
+     * center of the layout.
+     *
+     * @param scrollX       the current scroll position
+     * @param f             the current fraction, see {@link #calculateF(int, int, int, int)}
+     * @param slots         the number of elements between the center element and the other one,
+     *                      negative if the other one is before the center element
+     * @param otherFraction the fraction of the other element
+     * @param objWidth      the width of one element in pixels
+     */
+    public static long scrollPositionOf(int scrollX, double f, int slots, double otherFraction, int objWidth) {
+        return scrollX + Math.round((slots + otherFraction - f) * objWidth);
+    }
+
+    /**
+     * If we've scrolled more than half of a view width in either direction, then
+     * a different time is the "current" time, and we need to shuffle our views around.
+     * Each additional full view's width on top of the initial half view's width is
+     * another position that we need to move our elements. So, we need to add half the
+     * width to the amount we've scrolled and then compute how many full multiples of
+     * the view width that encompasses to determine how far to move our elements.
+     *
+     * @param scrollX       the absolute x-value where we are being asked to scroll
+     * @param initialOffset the scroll position which centers the elements
+     * @param objWidth      the width of one element in pixels
+     * @return the number of steps the elements must be moved, negative if scrolled to the right,
+     * positive if scrolled to the left, 0 if no move is needed
+     */
+    public static int moveSteps(int scrollX, int initialOffset, int objWidth) {
+        if (scrollX - initialOffset > objWidth / 2) {
+            // Our scroll target relative to our initial offset
+            int relativeScroll = scrollX - initialOffset;
+            return -((relativeScroll + (objWidth / 2)) / objWidth);
+        } else if (initialOffset - scrollX > objWidth / 2) {
+            int relativeScroll = initialOffset - scrollX;
+            return (relativeScroll + (objWidth / 2)) / objWidth;
+        }
+        return 0;
+    }
+
+    /**
+     * Modifies the scroll target based on the view shuffling of {@link #moveSteps(int, int, int)}.
+     *
+     * @return the scroll position after the elements have been moved
+     */
+    public static int wrapScrollX(int scrollX, int initialOffset, int objWidth) {
+        if (scrollX - initialOffset > objWidth / 2) {
+            int relativeScroll = scrollX - initialOffset;
+            return ((relativeScroll - objWidth / 2) % objWidth) + initialOffset - objWidth / 2;
+        } else if (initialOffset - scrollX > objWidth / 2) {
+            return (initialOffset + objWidth / 2 - ((initialOffset + objWidth / 2 - scrollX) % objWidth));
+        }
+        return scrollX;
+    }
+}
@@ -0,0 +1,596 @@
+package com.mschwartz.dateslider;
+
+import com.mschwartz.dateslider.labeler.CalendarEngine;
+import com.mschwartz.dateslider.labeler.LabelPrefetcher;
+import com.mschwartz.dateslider.labeler.TimeLabeler;
+import com.mschwartz.dateslider.labeler.Util;
+
+/**
+ * The state of one row of a slider without any view: the slots with their TimeObjects, the
+ * scroll position and the selected time. It takes scroll positions in pixels and tells its
+ * listener which slots have changed and where the row must be scrolled to, so a view only has
+ * to render the slots. See ScrollLayout for the view using it.
+ * <p/>
+ * There are two scroll positions: the scroll position of the model is the sum of all scroll
+ * distances, the scroll position of the view is kept within one slot around the initial offset
+ * by moving the TimeObjects from slot to slot.
+ */
+public class SliderModel {
+
+    /**
+     * Predictive flings which move less than this number of layout widths are labeled completely
+     */
+    private static final int PREDICTIVE_FLING_MIN_WIDTHS = 3;
+
+    /**
+     * The label of the slots next to the center slot during a fast predictive fling
+     */
+    private static final String PLACEHOLDER_TEXT = "\u2026";
+
+    /**
+     * Gets informed about the changes a view must render
+     */
+    public interface Listener {
+
+        /**
+         * All slots may have new TimeObjects
+         */
+        public void onSlotsChanged();
+
+        /**
+         * The TimeObjects have been moved by -steps slots, the slots at the end they have been
+         * moved away from have new TimeObjects
+         */
+        public void onSlotsMoved(int steps);
+
+        /**
+         * The view must be scrolled to the given position
+         */
+        public void onScrollChanged(int viewScrollX);
+
+        /**
+         * A scroll has been shortened so that minTime or maxTime is not surpassed
+         */
+        public void onLimitReached();
+    }
+
+    private final TimeLabeler labeler;
+
+    private final TimeBoundaries timeBoundaries;
+
+    private Listener listener;
+
+    private int width;
+
+    private int slotWidth;
+
+    private int slotCount;
+
+    private int centerIndex;
+
+    /**
+     * The scroll position of the view which centers the slots
+     */
+    private int initialOffset;
+
+    /**
+     * The TimeObjects of the slots from left to right
+     */
+    private TimeObject[] slots;
+
+    private long currentTime = System.currentTimeMillis();
+
+    /**
+     * The scroll position of the model, the sum of all scroll distances
+     */
+    private int scrollX;
+
+    /**
+     * The scroll position of the model at the last scroll
+     */
+    private int lastScroll;
+
+    /**
+     * The scroll position of the view
+     */
+    private int viewScrollX;
+
+    private LabelPrefetcher prefetcher;
+
+    /**
+     * True while a predictive fling shows placeholders next to the center slot
+     */
+    private boolean fastFling;
+
+    /**
+     * The TimeObjects around the slot a predictive fling will land on, three layout widths wide
+     */
+    private TimeObject[] landingSlots;
+
+    /**
+     * Shown by all slots next to the center slot during a fast predictive fling. It has no times,
+     * while it is shown only the center slot is used to compute times.
+     */
+    private final TimeObject placeholder = new TimeObject(PLACEHOLDER_TEXT, 0, 0, 0);
+
+    /**
+     * The scroll positions of the view at which minTime and maxTime are in the center,
+     * Long.MIN_VALUE and Long.MAX_VALUE if there is no limit
+     */
+    private long minScrollExtent;
+
+    private long maxScrollExtent;
+
+    /**
+     * The center TimeObject and the version of the TimeBoundaries the extents were calculated for
+     */
+    private TimeObject extentsCenter;
+
+    private long extentsVersion;
+
+    public SliderModel(TimeLabeler labeler) {
+        this.labeler = labeler;
+        this.timeBoundaries = labeler.getTimeBoundaries();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public TimeLabeler getLabeler() {
+        return labeler;
+    }
+
+    /**
+     * Sets the size of the row. There are enough slots to fill the width with one slot to spare,
+     * and always an odd number of them so there is a center slot. Call {@link #resetScroll()}
+     * afterwards to label the slots.
+     *
+     * @param width     the width of the row in pixels
+     * @param slotWidth the width of one slot in pixels
+     */
+    public void setSize(int width, int slotWidth) {
+        this.width = width;
+        this.slotWidth = slotWidth;
+        slotCount = width / slotWidth;
+        // Make sure to round up
+        if (width % slotWidth != 0) {
+            slotCount++;
+        }
+        slotCount++;
+        // Now make sure we have an odd number of slots, we want to center the view later.
+        if (slotCount % 2 == 0) {
+            slotCount++;
+        }
+        // We have an odd number of slots, so slotCount / 2 will round down to the
+        // index just before the center in 1-based indexing, meaning that it will be the
+        // center index in 0-based indexing.
+        centerIndex = slotCount / 2;
+        slots = new TimeObject[slotCount];
+        // In order to keep the slots centered, the initial offset has to
+        // be half the difference between the slots' width and our width.
+        initialOffset = (slotCount * slotWidth - width) / 2;
+    }
+
+    /**
+     * Labels all slots and scrolls the view so that the current time is in the center
+     */
+    public void resetScroll() {
+        labelSlots();
+        viewScrollX = initialOffset;
+        scrollX = initialOffset;
+        lastScroll = initialOffset;
+        listener.onScrollChanged(viewScrollX);
+        setScroll();
+    }
+
+    public boolean hasSlots() {
+        return slots != null && slots[centerIndex] != null;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getCenterIndex() {
+        return centerIndex;
+    }
+
+    public int getSlotWidth() {
+        return slotWidth;
+    }
+
+    /**
+     * @return the TimeObjects of the slots from left to right, the array must not be modified
+     */
+    public TimeObject[] getSlots() {
+        return slots;
+    }
+
+    /**
+     * @return the TimeObject displayed in the center
+     */
+    public TimeObject getCenterTimeObject() {
+        return slots[centerIndex];
+    }
+
+    /**
+     * @return the display time of the center slot, i.e. the selected time
+     */
+    public long getTime() {
+        return getCenterTimeObject().getDisplayTime();
+    }
+
+    /**
+     * @return the exact time at the center of the row
+     */
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * @return the scroll position of the model, the sum of all scroll distances
+     */
+    public int getScrollX() {
+        return scrollX;
+    }
+
+    /**
+     * @return the scroll position of the view
+     */
+    public int getViewScrollX() {
+        return viewScrollX;
+    }
+
+    /**
+     * Sets the time. This method always relabels all slots.
+     *
+     * @param time the time in milliseconds since epoch
+     */
+    public void setTime(long time) {
+        currentTime = time;
+        if (slots == null)
+            return;
+        labelSlots();
+        setScroll();
+    }
+
+    /**
+     * Follows the time of the row below, which shows smaller units. If the time is still within
+     * the center slot, only the position within the slot is adjusted.
+     *
+     * @return true if the slots have been relabeled, i.e. the row above must follow too
+     */
+    public boolean followChild(long time) {
+        currentTime = time;
+        if (!hasSlots()) {
+            return false;
+        }
+        if (getCenterTimeObject().startTime <= time && getCenterTimeObject().endTime >= time) {
+            // the time has not changed so much, we still show the correct item
+            double curr_per = calculateF(viewScrollX);
+            double goal_per = ScrollMath.fractionOf(getCenterTimeObject(), currentTime);
+            int shift = (int) Math.floor((curr_per - goal_per) * slotWidth);
+            scrollX -= shift;
+            scrollToWithoutMove(scrollX);
+            return false;
+        }
+        labelSlots();
+        setScroll();
+        return true;
+    }
+
+    /**
+     * Follows the time of the row above, which shows larger units. Nothing changes while the time
+     * is within the center slot.
+     *
+     * @return true if the slots have been relabeled
+     */
+    public boolean followParent(long time) {
+        if (!hasSlots()) {
+            currentTime = time;
+            return false;
+        }
+        if (getCenterTimeObject().startTime <= time && getCenterTimeObject().endTime >= time) {
+            return false;
+        }
+        currentTime = time;
+        labelSlots();
+        setScroll();
+        return true;
+    }
+
+    /**
+     * Scrolls to the given position of the model and moves the TimeObjects if the center slot
+     * has changed.
+     *
+     * @param checkLimits if true, the scroll distance is reduced so that minTime and maxTime are
+     *                    not surpassed
+     * @return false if the position has not changed
+     */
+    public boolean scrollTo(int x, boolean checkLimits) {
+        scrollX = x;
+        int scrollDiff = x - lastScroll;
+        if (scrollDiff == 0)
+            return false;
+
+        // estimate whether we are going to reach the lower limit
+        if (timeBoundaries.minTime != -1 && checkLimits && scrollDiff < 0) {
+            double curr_per = calculateF(viewScrollX);
+            long esp_time = ScrollMath.estimateTime(getCenterTimeObject(), curr_per, scrollDiff, slotWidth);
+
+            // if we reach it, prevent surpassing it
+            if (esp_time < timeBoundaries.minTime) {
+                int deviation = ScrollMath.limitDeviation(currentTime, timeBoundaries.minTime, esp_time, scrollDiff);
+                scrollX -= deviation;
+                x -= deviation;
+                scrollDiff -= deviation;
+                listener.onLimitReached();
+            }
+        }
+        // estimate whether we are going to reach the upper limit
+        else if (timeBoundaries.maxTime != -1 && checkLimits && scrollDiff > 0) {
+            double curr_per = calculateF(viewScrollX);
+            long esp_time = ScrollMath.estimateTime(getCenterTimeObject(), curr_per, scrollDiff, slotWidth);
+
+            // if we reach it, prevent surpassing it
+            if (esp_time > timeBoundaries.maxTime) {
+                int deviation = ScrollMath.limitDeviation(currentTime, timeBoundaries.maxTime, esp_time, scrollDiff);
+                scrollX -= deviation;
+                x -= deviation;
+                scrollDiff -= deviation;
+                listener.onLimitReached();
+            }
+        }
+
+        // Determine the absolute x-value for where we are being asked to scroll
+        int newViewScrollX = viewScrollX + scrollDiff;
+
+        // If we've scrolled more than half of a slot width in either direction, then
+        // a different time is the "current" time, and we need to shuffle the TimeObjects around.
+        int steps = ScrollMath.moveSteps(newViewScrollX, initialOffset, slotWidth);
+        if (steps != 0) {
+            moveSlots(steps);
+            // Now modify the scroll target based on our shuffling.
+            newViewScrollX = ScrollMath.wrapScrollX(newViewScrollX, initialOffset, slotWidth);
+        }
+
+        viewScrollX = newViewScrollX;
+        listener.onScrollChanged(viewScrollX);
+        lastScroll = x;
+        return true;
+    }
+
+    /**
+     * Calculates the time at the center of the row after a scroll
+     *
+     * @return the time the row above must follow
+     */
+    public long updateCurrentTime() {
+        currentTime = ScrollMath.timeAt(getCenterTimeObject(), calculateF(viewScrollX));
+        return currentTime;
+    }
+
+    /**
+     * Binds the current time to minTime, maxTime and the hours of the boundaries
+     *
+     * @return the time the row below must follow
+     */
+    public long bindCurrentTime() {
+        // the hours are those of the timezone of the boundaries, not of the default timezone
+        TimeBoundaries boundaries = timeBoundaries.snapshot().asTimeBoundaries();
+        CalendarEngine engine = CalendarEngine.forZone(boundaries.timezone);
+        long time = Util.bindToMinMax(boundaries, currentTime);
+        time = engine.minStartTime(boundaries, time);
+        currentTime = engine.maxEndTime(boundaries, time);
+        return currentTime;
+    }
+
+    /**
+     * Scrolls the view so that the current time is at its position within the center slot
+     */
+    private void setScroll() {
+        double curr_per = calculateF(viewScrollX);
+        double goal_per = ScrollMath.fractionOf(getCenterTimeObject(), currentTime);
+        int shift = (int) Math.round((curr_per - goal_per) * slotWidth);
+        scrollX -= shift;
+        scrollToWithoutMove(scrollX);
+    }
+
+    /**
+     * The version of scrollTo() which never moves the TimeObjects. It is used where it is 100%
+     * sure that relabeling is not needed.
+     */
+    private void scrollToWithoutMove(int x) {
+        int scrollDiff = x - lastScroll;
+        if (scrollDiff == 0)
+            return;
+        viewScrollX += scrollDiff;
+        listener.onScrollChanged(viewScrollX);
+        lastScroll = x;
+    }
+
+    private double calculateF(int viewScrollX) {
+        return ScrollMath.calculateF(width, slotCount, slotWidth, viewScrollX);
+    }
+
+    private void labelSlots() {
+        labeler.getRange(currentTime, slots, centerIndex);
+        listener.onSlotsChanged();
+    }
+
+    /**
+     * When the scrolling causes "steps" slots to fall out of the visible row, the TimeObjects
+     * are moved so that it appears that there happens an endless scrolling with a very limited
+     * amount of slots.
+     */
+    private void moveSlots(int steps) {
+        // We need to make each slot reflect a value that is -steps units
+        // from its current value. Most of these values are already present at
+        // an index -steps offset, so we shift them within slots and let
+        // the labeler create only the ones which newly come into view, continuing
+        // from the last value we kept.
+        int count = slots.length;
+        int shift = Math.min(Math.abs(steps), count);
+        if (fastFling) {
+            // only the center slot is labeled, the others show the same placeholder
+            TimeObject center = labeler.addCached(getCenterTimeObject().getDisplayTime(), -steps);
+            for (int i = 0; i < count; i++) {
+                slots[i] = i == centerIndex ? center : placeholder;
+            }
+        } else if (steps < 0) {
+            // scrolled to the right, the later times come into view at the end
+            System.arraycopy(slots, shift, slots, 0, count - shift);
+            if (shift == count) {
+                slots[0] = labeler.addCached(slots[0].getDisplayTime(), -steps);
+                labeler.addRange(slots, 0, 1, count - 1);
+            } else {
+                addRange(count - shift - 1, 1, shift);
+            }
+        } else {
+            // scrolled to the left, the earlier times come into view at the start
+            System.arraycopy(slots, 0, slots, shift, count - shift);
+            if (shift == count) {
+                slots[count - 1] = labeler.addCached(slots[count - 1].getDisplayTime(), -steps);
+                labeler.addRange(slots, count - 1, -1, count - 1);
+            } else {
+                addRange(shift, -1, shift);
+            }
+        }
+        listener.onSlotsMoved(steps);
+    }
+
+    /**
+     * Fills the slots next to the one at index like
+     * {@link TimeLabeler#addRange(TimeObject[], int, int, int)}, taking the prefetched ones first.
+     */
+    private void addRange(int index, int step, int count) {
+        int filled = 0;
+        if (prefetcher != null) {
+            filled = prefetcher.fill(slots, index, step, count, timeBoundaries.getVersion());
+        }
+        if (filled < count) {
+            labeler.addRange(slots, index + filled * step, step, count - filled);
+        }
+    }
+
+    /**
+     * Sets the prefetcher whose TimeObjects are used when slots come into view, null to
+     * compute all of them directly
+     */
+    public void setPrefetcher(LabelPrefetcher prefetcher) {
+        this.prefetcher = prefetcher;
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // scroll extents
+
+    /**
+     * @return the scroll position of the model at which minTime is in the center, Integer.MIN_VALUE
+     * if there is no minTime
+     */
+    public int getMinScrollX() {
+        updateScrollExtents();
+        if (minScrollExtent == Long.MIN_VALUE)
+            return Integer.MIN_VALUE;
+        // the extents are relative to the scroll position of the view
+        return (int) Math.max(Integer.MIN_VALUE, minScrollExtent + scrollX - viewScrollX);
+    }
+
+    /**
+     * @return the scroll position of the model at which maxTime is in the center, Integer.MAX_VALUE
+     * if there is no maxTime
+     */
+    public int getMaxScrollX() {
+        updateScrollExtents();
+        if (maxScrollExtent == Long.MAX_VALUE)
+            return Integer.MAX_VALUE;
+        return (int) Math.min(Integer.MAX_VALUE, maxScrollExtent + scrollX - viewScrollX);
+    }
+
+    /**
+     * Calculates the scroll positions of minTime and maxTime if the center TimeObject or the
+     * boundaries have changed since the last calculation
+     */
+    private void updateScrollExtents() {
+        TimeObject center = getCenterTimeObject();
+        long version = timeBoundaries.getVersion();
+        if (center == extentsCenter && version == extentsVersion) {
+            return;
+        }
+        double f = calculateF(viewScrollX);
+        minScrollExtent = timeBoundaries.minTime == -1 ? Long.MIN_VALUE : viewScrollPositionOf(timeBoundaries.minTime, f);
+        maxScrollExtent = timeBoundaries.maxTime == -1 ? Long.MAX_VALUE : viewScrollPositionOf(timeBoundaries.maxTime, f);
+        extentsCenter = center;
+        extentsVersion = version;
+    }
+
+    /**
+     * @param f the current fraction of the center TimeObject
+     * @return the scroll position of the view at which the given time is in the center
+     */
+    private long viewScrollPositionOf(long time, double f) {
+        int slotsBetween = labeler.slotsBetween(getCenterTimeObject().getDisplayTime(), time);
+        double fraction = ScrollMath.fractionOf(labeler.getElemCached(time), time);
+        // the time may lie between two elements, e.g. outside of the hours of the boundaries
+        fraction = Math.max(0, Math.min(1, fraction));
+        return ScrollMath.scrollPositionOf(viewScrollX, f, slotsBetween, fraction, slotWidth);
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // predictive flings
+
+    /**
+     * Labels the slots around the landing position of a long fling and shows placeholders next
+     * to the center slot until {@link #finishFastFling()} is called.
+     *
+     * @param finalX the scroll position of the model at which the fling ends
+     * @return true if the fling is long enough for placeholders
+     */
+    public boolean startFastFling(int finalX) {
+        if (!hasSlots()) {
+            return false;
+        }
+        // moving the content to the left by one slot shows the next later time in the center
+        int distance = (finalX - scrollX) / slotWidth;
+        if (Math.abs(distance) < PREDICTIVE_FLING_MIN_WIDTHS * slotCount) {
+            return false;
+        }
+        TimeObject landing = labeler.addCached(getCenterTimeObject().getDisplayTime(), distance);
+        if (landingSlots == null || landingSlots.length != 3 * slotCount) {
+            landingSlots = new TimeObject[3 * slotCount];
+        }
+        labeler.getRange(landing.getDisplayTime(), landingSlots, landingSlots.length / 2);
+        fastFling = true;
+        return true;
+    }
+
+    public boolean isFastFling() {
+        return fastFling;
+    }
+
+    /**
+     * Replaces the placeholders of a predictive fling with the labels of the current position,
+     * taken from the landing slots if the fling is close enough to them
+     */
+    public void finishFastFling() {
+        if (!fastFling) {
+            return;
+        }
+        fastFling = false;
+        long time = getCenterTimeObject().getDisplayTime();
+        int landingIndex = -1;
+        for (int i = 0; i < landingSlots.length; i++) {
+            if (landingSlots[i].getDisplayTime() == time) {
+                landingIndex = i;
+                break;
+            }
+        }
+        if (landingIndex >= centerIndex && landingIndex + centerIndex < landingSlots.length) {
+            System.arraycopy(landingSlots, landingIndex - centerIndex, slots, 0, slots.length);
+        } else {
+            labeler.getRange(time, slots, centerIndex);
+        }
+        listener.onSlotsChanged();
+    }
+}
@@ -0,0 +1,301 @@
+package com.mschwartz.dateslider;
+
+import java.io.Serializable;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class holds all boundaries relevant for the views. It exists just once per dialog.
+ * <p/>
+ * The fields are changed in place by the slider, so they must only be accessed on the thread
+ * which changes them. Use {@link #snapshot()} to get an immutable copy which can be passed to
+ * other threads and whose version identifies the values, e.g. as key of a cache.
+ * <p/>
+ * Change the values with the setters or {@link #set(Snapshot)}. The fields are public for
+ * compatibility, code which assigns them directly or changes the timezone in place must call
+ * {@link #changed()} afterwards, otherwise the snapshot keeps the old values.
+ * Created by DELL on 19.11.2014.
+ */
+public class TimeBoundaries implements Serializable {
+
+    /**
+     * The source of the versions of all snapshots
+     */
+    private static final AtomicLong sVersions = new AtomicLong();
+
+    public long minTime = -1;
+
+    public long maxTime = -1;
+
+    /**
+     * The interval for the minutes. valid values are from 1 to 60
+     */
+    public int minuteInterval = 1;
+
+    /**
+     * The starting hour of the day. Must be either <code>-1</code> or before endHour.
+     */
+    public int startHour = -1;
+
+    /**
+     * The ending hour of the day. Must be either <code>-1</code> or after startHour.
+     */
+    public int endHour = -1;
+
+    public TimeZone timezone = TimeZone.getDefault();
+
+    /**
+     * The snapshot of the current values, created on demand and dropped by every change
+     */
+    private transient volatile Snapshot snapshot;
+
+    public TimeBoundaries() {
+    }
+
+    /**
+     * Creates mutable boundaries with the values of the given snapshot
+     */
+    public TimeBoundaries(Snapshot snapshot) {
+        set(snapshot);
+    }
+
+    /**
+     * Creates the boundaries of {@link Snapshot#asTimeBoundaries()}, which share the timezone
+     * of the snapshot
+     */
+    private TimeBoundaries(Snapshot snapshot, boolean shared) {
+        minTime = snapshot.minTime;
+        maxTime = snapshot.maxTime;
+        minuteInterval = snapshot.minuteInterval;
+        startHour = snapshot.startHour;
+        endHour = snapshot.endHour;
+        timezone = snapshot.timezone;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Sets all fields to the values of the given snapshot
+     */
+    public synchronized void set(Snapshot snapshot) {
+        minTime = snapshot.minTime;
+        maxTime = snapshot.maxTime;
+        minuteInterval = snapshot.minuteInterval;
+        startHour = snapshot.startHour;
+        endHour = snapshot.endHour;
+        // a copy, so changing the zone of the boundaries does not change the snapshot
+        timezone = (TimeZone) snapshot.timezone.clone();
+        this.snapshot = snapshot;
+    }
+
+    public synchronized void setMinTime(long minTime) {
+        if (this.minTime != minTime) {
+            this.minTime = minTime;
+            snapshot = null;
+        }
+    }
+
+    public synchronized void setMaxTime(long maxTime) {
+        if (this.maxTime != maxTime) {
+            this.maxTime = maxTime;
+            snapshot = null;
+        }
+    }
+
+    public synchronized void setMinuteInterval(int minuteInterval) {
+        if (this.minuteInterval != minuteInterval) {
+            this.minuteInterval = minuteInterval;
+            snapshot = null;
+        }
+    }
+
+    public synchronized void setHours(int startHour, int endHour) {
+        if (this.startHour != startHour || this.endHour != endHour) {
+            this.startHour = startHour;
+            this.endHour = endHour;
+            snapshot = null;
+        }
+    }
+
+    public synchronized void setTimezone(TimeZone timezone) {
+        if (this.timezone != timezone) {
+            this.timezone = timezone;
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Must be called after the public fields have been assigned directly or the timezone has
+     * been changed in place. The next {@link #snapshot()} has a new version.
+     */
+    public synchronized void changed() {
+        snapshot = null;
+    }
+
+    /**
+     * Returns an immutable copy of the current values. The same snapshot is returned until the
+     * values are changed, afterwards a snapshot with a higher version is created. As long as
+     * nothing changes this is a single volatile read.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null) {
+                current = new Snapshot(minTime, maxTime, minuteInterval, startHour, endHour, timezone);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * @return the version of the current values, see {@link Snapshot#version}
+     */
+    public long getVersion() {
+        return snapshot().version;
+    }
+
+    /**
+     * The values of a TimeBoundaries at one point in time. Snapshots are immutable and can be
+     * shared between threads.
+     */
+    public static final class Snapshot implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        public final long minTime;
+
+        public final long maxTime;
+
+        public final int minuteInterval;
+
+        public final int startHour;
+
+        public final int endHour;
+
+        /**
+         * A copy of the timezone the snapshot was created with. It must not be changed.
+         */
+        public final TimeZone timezone;
+
+        /**
+         * Identifies the values of the snapshot. Every snapshot gets a version which is higher
+         * than the ones of all snapshots created before. The versions are only unique within a
+         * process, so a deserialized snapshot gets a new one.
+         */
+        public final long version;
+
+        /**
+         * The boundaries returned by asTimeBoundaries(), created on demand
+         */
+        private transient volatile TimeBoundaries timeBoundaries;
+
+        private Snapshot(long minTime, long maxTime, int minuteInterval, int startHour, int endHour, TimeZone timezone) {
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+            this.minuteInterval = minuteInterval;
+            this.startHour = startHour;
+            this.endHour = endHour;
+            this.timezone = (TimeZone) timezone.clone();
+            this.version = sVersions.incrementAndGet();
+        }
+
+        /**
+         * Returns boundaries with the values of this snapshot for the methods which expect a
+         * TimeBoundaries, e.g. those of Util. The same instance is returned to all callers and
+         * shares the timezone of the snapshot, so it must not be changed.
+         */
+        public TimeBoundaries asTimeBoundaries() {
+            TimeBoundaries current = timeBoundaries;
+            if (current == null) {
+                current = new TimeBoundaries(this, true);
+                timeBoundaries = current;
+            }
+            return current;
+        }
+
+        /**
+         * Replaces a deserialized snapshot by one with the same values and a version of this process
+         */
+        private Object readResolve() {
+            return new Snapshot(minTime, maxTime, minuteInterval, startHour, endHour, timezone);
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "version=" + version +
+                    ", minTime=" + minTime +
+                    ", maxTime=" + maxTime +
+                    ", minuteInterval=" + minuteInterval +
+                    ", startHour=" + startHour +
+                    ", endHour=" + endHour +
+                    ", timezone=" + timezone.getID() +
+                    '}';
+        }
+
+        /**
+         * Creates snapshots. The values which are not set are the defaults of TimeBoundaries,
+         * or the values of the snapshot the builder was created from.
+         */
+        public static final class Builder {
+
+            private long minTime = -1;
+
+            private long maxTime = -1;
+
+            private int minuteInterval = 1;
+
+            private int startHour = -1;
+
+            private int endHour = -1;
+
+            private TimeZone timezone = TimeZone.getDefault();
+
+            public Builder() {
+            }
+
+            public Builder(Snapshot snapshot) {
+                minTime = snapshot.minTime;
+                maxTime = snapshot.maxTime;
+                minuteInterval = snapshot.minuteInterval;
+                startHour = snapshot.startHour;
+                endHour = snapshot.endHour;
+                timezone = snapshot.timezone;
+            }
+
+            public Builder setMinTime(long minTime) {
+                this.minTime = minTime;
+                return this;
+            }
+
+            public Builder setMaxTime(long maxTime) {
+                this.maxTime = maxTime;
+                return this;
+            }
+
+            public Builder setMinuteInterval(int minuteInterval) {
+                this.minuteInterval = minuteInterval;
+                return this;
+            }
+
+            public Builder setHours(int startHour, int endHour) {
+                this.startHour = startHour;
+                this.endHour = endHour;
+                return this;
+            }
+
+            public Builder setTimezone(TimeZone timezone) {
+                this.timezone = timezone;
+                return this;
+            }
+
+            public Snapshot build() {
+                return new Snapshot(minTime, maxTime, minuteInterval, startHour, endHour, timezone);
+            }
+        }
+    }
+}
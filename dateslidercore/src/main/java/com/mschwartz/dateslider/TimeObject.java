@@ -0,0 +1,218 @@
+package com.mschwartz.dateslider;
+
+import com.mschwartz.dateslider.labeler.LabelFormat;
+import com.mschwartz.dateslider.labeler.Util;
+
+import java.util.Calendar;
+
+/**
+ * Very simple helper class that defines a time unit with a label (text), its start-
+ * and end time/date. This object represents one label in the UI. It may span one minute/several minutes or one hour/day/week/month/year.
+ */
+public class TimeObject {
+
+    /**
+     * The bits of {@link #attributes} holding the day of week of the display time,
+     * {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}
+     */
+    public static final int ATTR_DAY_OF_WEEK_MASK = 0x7;
+
+    /**
+     * Set in {@link #attributes} if the display time is on a saturday or sunday
+     */
+    public static final int ATTR_WEEKEND = 1 << 3;
+
+    /**
+     * Set in {@link #attributes} if the display time is on the first day of a month
+     */
+    public static final int ATTR_FIRST_OF_MONTH = 1 << 4;
+
+    /**
+     * The position of the flags of the app in {@link #attributes}
+     */
+    public static final int ATTR_APP_FLAGS_SHIFT = 16;
+
+    /**
+     * The bits of {@link #attributes} holding the flags of the app
+     */
+    public static final int ATTR_APP_FLAGS_MASK = 0xFFFF << ATTR_APP_FLAGS_SHIFT;
+
+    public final CharSequence text;
+
+    /**
+     * The first part of the label, e.g. the day of month of "%td %ta". Multi-line TimeViews show
+     * the parts on separate lines. A label with only one part has the whole text as primary part.
+     */
+    public final CharSequence primary;
+
+    /**
+     * The second part of the label, null if the label has only one part
+     */
+    public final CharSequence secondary;
+
+    /**
+     * The rest of the label after the second part, null if the label has less than three parts
+     */
+    public final CharSequence tertiary;
+
+    /**
+     * The start time (earliest time) which is represented by this object
+     */
+    public final long startTime;
+
+    /**
+     * The end time (latest time) which is represented by this object
+     */
+    public final long endTime;
+
+    /**
+     * The time which is used for displaying. It is the nominal time of the object and will reported to the listener
+     */
+    public final long displayTime;
+
+    /**
+     * True if the object is completely out of bounds
+     */
+    public boolean outOfBounds;
+
+    /**
+     * True if the left (start) time is out of bounds
+     */
+    public boolean oobLeft;
+
+    /**
+     * True if the right (end) time is out of bounds
+     */
+    public boolean oobRight;
+
+    /**
+     * The calendar attributes of the display time and the flags of the app, computed once by
+     * the labeler so the views can style themselves without any date math. 0 if unknown.
+     */
+    public int attributes;
+
+    /**
+     * Creates a TimeObject whose parts are taken from the text, which is split at its spaces
+     */
+    public TimeObject(final CharSequence text, final long startTime, final long endTime, final long displayTime) {
+        this(text, part(text, 0), part(text, 1), part(text, 2), startTime, endTime, displayTime);
+    }
+
+    public TimeObject(final CharSequence text, final CharSequence primary, final CharSequence secondary, final CharSequence tertiary,
+                      final long startTime, final long endTime, final long displayTime) {
+        this.text = text;
+        this.primary = primary;
+        this.secondary = secondary;
+        this.tertiary = tertiary;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.displayTime = displayTime;
+    }
+
+    /**
+     * @return the given part of the text split at its spaces like LabelFormat splits a pattern,
+     * null if the text has no such part
+     */
+    private static CharSequence part(CharSequence text, int part) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        int start = 0;
+        int index = 0;
+        for (int i = 0; i < length && index < LabelFormat.MAX_PARTS - 1; i++) {
+            if (text.charAt(i) == ' ') {
+                if (i > start) {
+                    if (index == part) {
+                        return text.subSequence(start, i);
+                    }
+                    index++;
+                }
+                start = i + 1;
+            }
+        }
+        if (index != part) {
+            return null;
+        }
+        if (start == 0) {
+            return text;
+        }
+        return start < length ? text.subSequence(start, length) : null;
+    }
+
+    public void setOob(boolean outOfBounds, boolean oobLeft, boolean oobRight) {
+        this.outOfBounds = outOfBounds;
+        this.oobLeft = oobLeft;
+        this.oobRight = oobRight;
+    }
+
+    /**
+     * Sets the calendar attributes, i.e. all attributes except the flags of the app
+     */
+    public void setCalendarAttributes(int calendarAttributes) {
+        attributes = (attributes & ATTR_APP_FLAGS_MASK) | (calendarAttributes & ~ATTR_APP_FLAGS_MASK);
+    }
+
+    /**
+     * Sets the flags of the app, only the lower 16 bits are kept
+     */
+    public void setAppFlags(int appFlags) {
+        attributes = (attributes & ~ATTR_APP_FLAGS_MASK) | ((appFlags << ATTR_APP_FLAGS_SHIFT) & ATTR_APP_FLAGS_MASK);
+    }
+
+    /**
+     * @return the day of week of the display time, {@link Calendar#SUNDAY} to
+     * {@link Calendar#SATURDAY}, 0 if unknown
+     */
+    public int getDayOfWeek() {
+        return attributes & ATTR_DAY_OF_WEEK_MASK;
+    }
+
+    public boolean isWeekend() {
+        return (attributes & ATTR_WEEKEND) != 0;
+    }
+
+    public boolean isFirstOfMonth() {
+        return (attributes & ATTR_FIRST_OF_MONTH) != 0;
+    }
+
+    /**
+     * @return the flags set by the app, see {@link com.mschwartz.dateslider.labeler.TimeAttributeProvider}
+     */
+    public int getAppFlags() {
+        return (attributes & ATTR_APP_FLAGS_MASK) >>> ATTR_APP_FLAGS_SHIFT;
+    }
+
+    /**
+     * @return true if all of the given flags of the app are set
+     */
+    public boolean hasAppFlags(int appFlags) {
+        return (getAppFlags() & appFlags) == appFlags;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public long getDisplayTime() {
+        return displayTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeObject{" +
+                "text=" + text +
+                ", displayTime=" + Util.format(displayTime) +
+                ", startTime=" + Util.format(startTime) +
+                ", endTime=" + Util.format(endTime) +
+                ", outOfBounds=" + outOfBounds +
+                ", oobLeft=" + oobLeft +
+                ", oobRight=" + oobRight +
+                ", attributes=0x" + Integer.toHexString(attributes) +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.mschwartz.dateslider;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.util.Calendar;
+import java.util.Locale;
+
+/**
+ * Formats the title of a DateSlider like String.format("%te. %tB %tY %tH:%02d", ...) does. The
+ * title is kept in a buffer split into the segments day, month, year, hour and minute, and only
+ * the segments whose field has changed are replaced. While the user scrolls the minutes, only the
+ * last two characters are rewritten and no String is created if the title stays the same.
+ */
+public class TitleFormatter {
+
+    private static final int DAY = 0;
+    private static final int MONTH = 1;
+    private static final int YEAR = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+
+    private static final int SEGMENTS = 5;
+
+    /**
+     * The separators in front of the segments
+     */
+    private static final String[] SEPARATORS = {"", ". ", " ", " ", ":"};
+
+    private final StringBuilder mBuffer = new StringBuilder(32);
+
+    /**
+     * The start and end of every segment in mBuffer, without its separator
+     */
+    private final int[] mStart = new int[SEGMENTS];
+
+    private final int[] mEnd = new int[SEGMENTS];
+
+    /**
+     * The field values the segments have been formatted for
+     */
+    private final int[] mValues = new int[SEGMENTS];
+
+    /**
+     * The locale the month names and digits are taken from, null until the first title
+     */
+    private Locale mLocale;
+
+    private String[] mMonthNames;
+
+    private char mZeroDigit;
+
+    /**
+     * The characters of a number while it is formatted
+     */
+    private final char[] mDigits = new char[12];
+
+    private String mTitle;
+
+    /**
+     * Updates the title to the time of the given Calendar.
+     *
+     * @return true if the title has changed
+     */
+    public boolean update(Calendar time) {
+        Locale locale = Locale.getDefault();
+        if (!locale.equals(mLocale)) {
+            reset(locale);
+        }
+        boolean changed = false;
+        changed |= update(DAY, time.get(Calendar.DAY_OF_MONTH));
+        changed |= update(MONTH, time.get(Calendar.MONTH));
+        changed |= update(YEAR, time.get(Calendar.YEAR));
+        changed |= update(HOUR, time.get(Calendar.HOUR_OF_DAY));
+        changed |= update(MINUTE, time.get(Calendar.MINUTE));
+        if (changed || mTitle == null) {
+            mTitle = mBuffer.toString();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the current title, null before the first update
+     */
+    public String getTitle() {
+        return mTitle;
+    }
+
+    /**
+     * Starts with an empty title for the given locale
+     */
+    private void reset(Locale locale) {
+        mLocale = locale;
+        mMonthNames = DateFormatSymbols.getInstance(locale).getMonths();
+        mZeroDigit = DecimalFormatSymbols.getInstance(locale).getZeroDigit();
+        mBuffer.setLength(0);
+        for (int i = 0; i < SEGMENTS; i++) {
+            mBuffer.append(SEPARATORS[i]);
+            mStart[i] = mBuffer.length();
+            mEnd[i] = mBuffer.length();
+            mValues[i] = Integer.MIN_VALUE;
+        }
+        mTitle = null;
+    }
+
+    /**
+     * Replaces the given segment if its value has changed
+     *
+     * @return true if the segment has been replaced
+     */
+    private boolean update(int segment, int value) {
+        if (mValues[segment] == value) {
+            return false;
+        }
+        mValues[segment] = value;
+        int before = mBuffer.length();
+        mBuffer.delete(mStart[segment], mEnd[segment]);
+        if (segment == MONTH) {
+            mBuffer.insert(mStart[segment], mMonthNames[value]);
+        } else {
+            // the day has no leading zero, the year has at least four digits
+            int length = formatNumber(value, segment == DAY ? 1 : segment == YEAR ? 4 : 2);
+            mBuffer.insert(mStart[segment], mDigits, 0, length);
+        }
+        // the segments behind this one move by the difference of the lengths
+        int delta = mBuffer.length() - before;
+        mEnd[segment] += delta;
+        for (int i = segment + 1; i < SEGMENTS; i++) {
+            mStart[i] += delta;
+            mEnd[i] += delta;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the given number to mDigits, padded with zeros to the given width, in the digits of
+     * the locale
+     *
+     * @return the number of characters written
+     */
+    private int formatNumber(int value, int width) {
+        int length = 0;
+        long v = value;
+        if (v < 0) {
+            mDigits[length++] = '-';
+            v = -v;
+        }
+        int digits = 1;
+        for (long d = v; d >= 10; d /= 10) {
+            digits++;
+        }
+        for (int i = digits; i < width; i++) {
+            mDigits[length++] = mZeroDigit;
+        }
+        length += digits;
+        for (int i = length - 1; digits > 0; i--, digits--) {
+            mDigits[i] = (char) (mZeroDigit + v % 10);
+            v /= 10;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,899 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Does the calendar arithmetic of {@link Util} directly on epoch milliseconds. Every operation
+ * mirrors the corresponding Calendar operation the original implementation used, so the
+ * results are the same:
+ * <ul>
+ * <li>adding hours, minutes, seconds or milliseconds adds absolute time</li>
+ * <li>adding days or weeks keeps the wall clock time and adjusts it if the zone offset changes</li>
+ * <li>setting a field (e.g. the hour of day) changes the wall clock time which is then resolved
+ * to utc the way a lenient Calendar does, see {@link #toUtc(long)}</li>
+ * </ul>
+ * The zone offsets are cached, so in the common case no Calendar and no other object is created.
+ * The Android TimeZone implementation does not expose its transitions, so the cache remembers
+ * a range of time around the last lookup in which the offset is known to be constant.
+ * <p/>
+ * Instances are thread safe. Use {@link #forZone(TimeZone)} to obtain one. An engine belongs to
+ * a timezone and a locale, the locale determines the week numbers and the calendar system.
+ */
+public final class CalendarEngine {
+
+    public static final long SECOND = 1000L;
+
+    public static final long MINUTE = 60 * SECOND;
+
+    public static final long HOUR = 60 * MINUTE;
+
+    public static final long DAY = 24 * HOUR;
+
+    /**
+     * The number of days between 0001-01-01 (the "fixed date" 1 used by GregorianCalendar) and 1970-01-01
+     */
+    private static final long EPOCH_OFFSET = 719163L;
+
+    /**
+     * The offset cache is valid for this amount of time around the last lookup. Zones do not change
+     * their offset twice within a week, so the offset at both ends being the same means that it is
+     * constant in between.
+     */
+    private static final long OFFSET_WINDOW = 7 * DAY;
+
+    /**
+     * The range after a time in which {@link #toUtc(long)} looks for a later time with the same
+     * wall clock time. No zone sets its clocks back by more than this.
+     */
+    private static final long OVERLAP_SEARCH = 6 * HOUR;
+
+    /**
+     * Returned by the closed form calculations if they cannot be applied
+     */
+    static final long NO_RESULT = Long.MIN_VALUE;
+
+    /**
+     * The number of engines kept for other zones and locales than the most recently used one
+     */
+    private static final int MAX_CACHED_ENGINES = 8;
+
+    /**
+     * The engines used so far, the most recently used last
+     */
+    private static final List<CalendarEngine> sEngines = new ArrayList<CalendarEngine>();
+
+    /**
+     * The arguments and the result of the last lookup, so the rows of a slider passing the same
+     * instances get the engine without comparing the rules of the zone
+     */
+    private static volatile Lookup sLastLookup;
+
+    /**
+     * A copy of the timezone the engine was created for, so changes of the caller's instance
+     * do not affect the engine
+     */
+    private final TimeZone zone;
+
+    private final Locale locale;
+
+    private final int rawOffset;
+
+    private final int firstDayOfWeek;
+
+    private final int minimalDaysInFirstWeek;
+
+    /**
+     * Used to create the labels with String.format() which expects a Calendar for the %t conversions
+     */
+    private final Calendar formatCalendar;
+
+    /**
+     * False if the locale uses another calendar, e.g. the buddhist one, then the labels
+     * are always created by String.format()
+     */
+    private final boolean gregorian;
+
+    private volatile OffsetWindow offsetWindow;
+
+    /**
+     * Returns the engine for the given timezone and the default locale, which determines the
+     * week numbers and the calendar system.
+     */
+    public static CalendarEngine forZone(TimeZone zone) {
+        return forZone(zone, Locale.getDefault());
+    }
+
+    /**
+     * Returns the engine for the given timezone and locale. Timezones are compared by their
+     * rules, not by identity. The most recently used engines are kept, so all rows of a slider
+     * share the same instance and its caches.
+     */
+    public static CalendarEngine forZone(TimeZone zone, Locale locale) {
+        Lookup last = sLastLookup;
+        if (last != null && last.matches(zone, locale)) {
+            return last.engine;
+        }
+        synchronized (sEngines) {
+            CalendarEngine engine = null;
+            for (int i = sEngines.size() - 1; i >= 0; i--) {
+                CalendarEngine candidate = sEngines.get(i);
+                if (candidate.isFor(zone, locale)) {
+                    engine = sEngines.remove(i);
+                    break;
+                }
+            }
+            if (engine == null) {
+                if (sEngines.size() >= MAX_CACHED_ENGINES) {
+                    sEngines.remove(0);
+                }
+                engine = new CalendarEngine(zone, locale);
+            }
+            sEngines.add(engine);
+            sLastLookup = new Lookup(zone, locale, engine);
+            return engine;
+        }
+    }
+
+    private CalendarEngine(TimeZone zone, Locale locale) {
+        this.zone = (TimeZone) zone.clone();
+        this.locale = locale;
+        this.rawOffset = zone.getRawOffset();
+        formatCalendar = Calendar.getInstance(this.zone, locale);
+        // the buddhist calendar is a subclass of GregorianCalendar with other years
+        gregorian = formatCalendar.getClass() == GregorianCalendar.class;
+        firstDayOfWeek = formatCalendar.getFirstDayOfWeek();
+        minimalDaysInFirstWeek = formatCalendar.getMinimalDaysInFirstWeek();
+    }
+
+    private boolean isFor(TimeZone zone, Locale locale) {
+        return this.locale.equals(locale) && this.zone.equals(zone);
+    }
+
+    /**
+     * @return a copy of the timezone of the engine
+     */
+    public TimeZone getZone() {
+        return (TimeZone) zone.clone();
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // zone offsets
+
+    /**
+     * @return the offset of the zone in milliseconds at the given utc time
+     */
+    public int getOffset(long time) {
+        OffsetWindow window = offsetWindow;
+        if (window != null && time >= window.start && time <= window.end) {
+            return window.offset;
+        }
+        int offset = zone.getOffset(time);
+        if (zone.getOffset(time - OFFSET_WINDOW) == offset && zone.getOffset(time + OFFSET_WINDOW) == offset) {
+            offsetWindow = new OffsetWindow(time - OFFSET_WINDOW, time + OFFSET_WINDOW, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * @return the wall clock time of the given utc time, expressed as milliseconds since 1970-01-01 00:00 local time
+     */
+    public long toLocal(long time) {
+        return time + getOffset(time);
+    }
+
+    /**
+     * Converts a wall clock time to utc the way a lenient Calendar does. A wall clock time which
+     * does not exist because the clocks are set forward is resolved with the offset before the
+     * change, i.e. it is moved forward by the gap. A wall clock time which exists twice because
+     * the clocks are set back is resolved to the later of the two times.
+     */
+    public long toUtc(long local) {
+        int offset = getOffset(local - rawOffset);
+        long time = local - offset;
+        int actual = getOffset(time);
+        if (actual != offset) {
+            long other = local - actual;
+            if (getOffset(other) != actual) {
+                // in the gap, the smaller offset is the one before the change
+                return local - Math.min(offset, actual);
+            }
+            time = other;
+            offset = actual;
+        }
+        // the raw offset of a zone may have changed, so the guess may be the earlier of two times
+        int later = getOffset(time + OVERLAP_SEARCH);
+        if (later < offset && getOffset(local - later) == later) {
+            return local - later;
+        }
+        return time;
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // fields
+
+    public int getHourOfDay(long time) {
+        return (int) (millisOfDay(toLocal(time)) / HOUR);
+    }
+
+    public int getMinute(long time) {
+        return (int) (millisOfDay(toLocal(time)) / MINUTE % 60);
+    }
+
+    public int getYear(long time) {
+        return yearOf(dateOf(dayOf(toLocal(time))));
+    }
+
+    /**
+     * @return the day of week like {@link Calendar#DAY_OF_WEEK}, i.e. {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}
+     */
+    public int getDayOfWeek(long time) {
+        return dayOfWeek(dayOf(toLocal(time)));
+    }
+
+    /**
+     * @return the day of week of the given time and the {@link TimeObject#ATTR_WEEKEND} and
+     * {@link TimeObject#ATTR_FIRST_OF_MONTH} flags, see {@link TimeObject#attributes}
+     */
+    public int getCalendarAttributes(long time) {
+        long day = dayOf(toLocal(time));
+        int dayOfWeek = dayOfWeek(day);
+        int attributes = dayOfWeek;
+        if (dayOfWeek == Calendar.SATURDAY || dayOfWeek == Calendar.SUNDAY) {
+            attributes |= TimeObject.ATTR_WEEKEND;
+        }
+        if (dayOfMonthOf(dateOf(day)) == 1) {
+            attributes |= TimeObject.ATTR_FIRST_OF_MONTH;
+        }
+        return attributes;
+    }
+
+    /**
+     * @return the week of the year like {@link Calendar#WEEK_OF_YEAR} for the default locale
+     */
+    public int getWeekOfYear(long time) {
+        long day = dayOf(toLocal(time));
+        int year = yearOf(dateOf(day));
+        long fixedDate = day + EPOCH_OFFSET;
+        long fixedDateJan1 = daysOf(year, 1, 1) + EPOCH_OFFSET;
+        int weekOfYear = weekNumber(fixedDateJan1, fixedDate);
+        if (weekOfYear == 0) {
+            // the date belongs to the last week of the previous year
+            long fixedDec31 = fixedDateJan1 - 1;
+            long prevJan1 = fixedDateJan1 - (isLeapYear(year - 1) ? 366 : 365);
+            weekOfYear = weekNumber(prevJan1, fixedDec31);
+        } else if (weekOfYear >= 52) {
+            long nextJan1 = fixedDateJan1 + (isLeapYear(year) ? 366 : 365);
+            long nextJan1st = dayOfWeekDateOnOrBefore(nextJan1 + 6, firstDayOfWeek);
+            int ndays = (int) (nextJan1st - nextJan1);
+            if (ndays >= minimalDaysInFirstWeek && fixedDate >= (nextJan1st - 7)) {
+                // The first days forms a week in which the date is included.
+                weekOfYear = 1;
+            }
+        }
+        return weekOfYear;
+    }
+
+    private int weekNumber(long fixedDay1, long fixedDate) {
+        long fixedDay1st = dayOfWeekDateOnOrBefore(fixedDay1 + 6, firstDayOfWeek);
+        int ndays = (int) (fixedDay1st - fixedDay1);
+        if (ndays >= minimalDaysInFirstWeek) {
+            fixedDay1st -= 7;
+        }
+        return (int) floorDiv(fixedDate - fixedDay1st, 7) + 1;
+    }
+
+    private static long dayOfWeekDateOnOrBefore(long fixedDate, int dayOfWeek) {
+        return fixedDate - floorMod(fixedDate - (dayOfWeek - 1), 7);
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // calendar operations
+
+    /**
+     * Sets the wall clock time of day of the given time, keeping its date. Same as setting
+     * HOUR_OF_DAY, MINUTE, SECOND and MILLISECOND of a Calendar.
+     */
+    public long withTimeOfDay(long time, int hour, int minute, int second, int millis) {
+        long day = dayOf(toLocal(time));
+        return toUtc(day * DAY + hour * HOUR + minute * MINUTE + second * SECOND + millis);
+    }
+
+    /**
+     * Sets the hour of day of the given time, keeping date, minutes, seconds and milliseconds.
+     * Same as setting HOUR_OF_DAY of a Calendar.
+     */
+    public long withHourOfDay(long time, int hour) {
+        long local = toLocal(time);
+        return toUtc(dayOf(local) * DAY + hour * HOUR + millisOfDay(local) % HOUR);
+    }
+
+    /**
+     * Adds the given number of days keeping the wall clock time. Same as Calendar.add(Calendar.DATE, days).
+     */
+    public long addDays(long time, int days) {
+        if (days == 0) {
+            return time;
+        }
+        int offset = getOffset(time);
+        long local = time + offset;
+        long day = dayOf(local) + days;
+        long result = day * DAY + millisOfDay(local) - offset;
+        int zoneOffset = offset - getOffset(result);
+        // If the time zone offset has changed, then adjust the difference.
+        if (zoneOffset != 0) {
+            long adjusted = result + zoneOffset;
+            // If the adjustment has changed the date, then take the previous one.
+            if (dayOf(toLocal(adjusted)) == day) {
+                result = adjusted;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the given number of months keeping the wall clock time. The day of month is pinned to the
+     * last day of the resulting month. Same as Calendar.add(Calendar.MONTH, months).
+     */
+    public long addMonths(long time, int months) {
+        if (months == 0) {
+            return time;
+        }
+        return addMonths(time, months, false);
+    }
+
+    /**
+     * Adds the given number of months keeping the wall clock time and optionally moves to the last day
+     * of the resulting month. Same as Calendar.add(Calendar.MONTH, months) followed by
+     * calendar.set(Calendar.DATE, calendar.getActualMaximum(Calendar.DATE)), i.e. the wall clock
+     * time is resolved only once.
+     */
+    public long addMonths(long time, int months, boolean lastDayOfMonth) {
+        long local = toLocal(time);
+        int date = dateOf(dayOf(local));
+        int month = yearOf(date) * 12 + monthOf(date) - 1 + months;
+        int year = (int) floorDiv(month, 12);
+        month = (int) floorMod(month, 12) + 1;
+        int day = lastDayOfMonth ? monthLength(year, month) : Math.min(dayOfMonthOf(date), monthLength(year, month));
+        return toUtc(daysOf(year, month, day) * DAY + millisOfDay(local));
+    }
+
+    /**
+     * Adds the given number of years keeping the wall clock time. Same as Calendar.add(Calendar.YEAR, years).
+     */
+    public long addYears(long time, int years) {
+        return addMonths(time, years * 12);
+    }
+
+    /**
+     * @return the utc time of the given wall clock time
+     */
+    public long time(int year, int month, int day, int hour, int minute, int second, int millis) {
+        return toUtc(daysOf(year, month, day) * DAY + hour * HOUR + minute * MINUTE + second * SECOND + millis);
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // the rules of Util
+
+    /**
+     * aligns the given time to the nearest minute interval.
+     */
+    public long alignMinuteInterval(TimeBoundaries timeBoundaries, long time) {
+        int interval = timeBoundaries.minuteInterval;
+        // set the calendar time to the display time
+        int secondsOfDay = (int) (millisOfDay(toLocal(time)) / SECOND);    // 0-3599
+        int nextBoundary = secondsOfDay / interval / 60 * interval * 60; // e.g. 3300
+        if (((secondsOfDay - nextBoundary) % (interval * 60)) >= interval * 30) // true
+            nextBoundary += interval * 60;
+        int diff = nextBoundary - secondsOfDay; // e.g. -5
+        time += diff * SECOND; // e.g. 15
+
+        long local = toLocal(time);
+        return toUtc(local - floorMod(local, SECOND));
+    }
+
+    public long minStartTime(TimeBoundaries timeBoundaries, long time) {
+        if (timeBoundaries.startHour != -1 && getHourOfDay(time) < timeBoundaries.startHour) {
+            return withTimeOfDay(time, timeBoundaries.startHour, 0, 0, 0);
+        }
+        return time;
+    }
+
+    public long maxEndTime(TimeBoundaries timeBoundaries, long time) {
+        if (timeBoundaries.endHour != -1) {
+            long reference = createReference(timeBoundaries, time);
+            if (time > reference)
+                return reference;
+        }
+        return time;
+    }
+
+    /**
+     * @return the last allowed time of the day of the given time
+     */
+    public long createReference(TimeBoundaries timeBoundaries, long time) {
+        return withTimeOfDay(time, timeBoundaries.endHour, 59, 59, 999) + timeBoundaries.minuteInterval * -30 * SECOND;
+    }
+
+    public long addMinutes(TimeBoundaries timeBoundaries, long time, int minutes) {
+        return addSteps(timeBoundaries, time, minutes, timeBoundaries.minuteInterval * MINUTE);
+    }
+
+    public long addHours(TimeBoundaries timeBoundaries, long time, int hours) {
+        return addSteps(timeBoundaries, time, hours, HOUR);
+    }
+
+    /**
+     * Adds count steps of the given length and wraps around at startHour and endHour.
+     */
+    private long addSteps(TimeBoundaries timeBoundaries, long time, int count, long step) {
+        if (count == 0) {
+            return time;
+        }
+        if (timeBoundaries.startHour == -1 && timeBoundaries.endHour == -1) {
+            // no window, every step is the same amount of absolute time
+            return time + count * step;
+        }
+        long result = addStepsInWindow(timeBoundaries, time, count, step);
+        if (result != NO_RESULT) {
+            return result;
+        }
+        return addStepsIteratively(timeBoundaries, time, count, step);
+    }
+
+    /**
+     * The closed form of {@link #addStepsIteratively(TimeBoundaries, long, int, long)}. Every day has
+     * the same number of slots between startHour and endHour, so the time is converted to a slot
+     * index, moved by count and converted back.
+     * <p/>
+     * This only gives the same result as the iteration if the time is on a slot, the wrap around at
+     * both ends of the window lands on a slot again and the zone offset does not change between the
+     * start and the result. Otherwise {@link #NO_RESULT} is returned.
+     */
+    long addStepsInWindow(TimeBoundaries timeBoundaries, long time, int count, long step) {
+        int startHour = timeBoundaries.startHour;
+        int endHour = timeBoundaries.endHour;
+        if (startHour <= 0 || endHour <= startHour || endHour >= 23) {
+            return NO_RESULT;
+        }
+        if (HOUR % step != 0 && step != 2 * HOUR) {
+            return NO_RESULT;
+        }
+
+        // the window of the day as local time of day
+        long first = startHour * HOUR;
+        long reference = endHour * HOUR + HOUR - 1 + timeBoundaries.minuteInterval * -30 * SECOND;
+        long last = floorDiv(reference, step) * step;
+        if (first % step != 0 || first < step || last < first) {
+            return NO_RESULT;
+        }
+        // stepping past the last slot must wrap to the first slot of the next day
+        long next = last + step;
+        if (next / HOUR < endHour || next >= DAY || next % HOUR != 0) {
+            return NO_RESULT;
+        }
+        // stepping before the first slot must wrap to the last slot of the previous day
+        long previous = endHour * HOUR + (first - step) % HOUR;
+        if (timeBoundaries.minuteInterval > 60)
+            previous += (timeBoundaries.minuteInterval / -60 + 1) * HOUR;
+        if (previous != last) {
+            return NO_RESULT;
+        }
+
+        long local = toLocal(time);
+        long day = dayOf(local);
+        long timeOfDay = millisOfDay(local);
+        if (timeOfDay % step != 0 || timeOfDay < first || timeOfDay > last) {
+            return NO_RESULT;
+        }
+
+        long slots = (last - first) / step + 1;
+        long index = (timeOfDay - first) / step + count;
+        long resultDay = day + floorDiv(index, slots);
+        long resultLocal = resultDay * DAY + first + floorMod(index, slots) * step;
+
+        // the iteration adds absolute time within the window, which is only the same as adding
+        // local time if the offset is constant. A margin of a few hours covers the resolution of
+        // the local times at the ends of the window.
+        long from = Math.min(day, resultDay) * DAY + first - step - 3 * HOUR - rawOffset;
+        long to = Math.max(day, resultDay) * DAY + (endHour + 1) * HOUR + 3 * HOUR - rawOffset;
+        int offset = getOffset(from);
+        for (long t = from + OFFSET_WINDOW; t < to; t += OFFSET_WINDOW) {
+            if (getOffset(t) != offset) {
+                return NO_RESULT;
+            }
+        }
+        if (getOffset(to) != offset) {
+            return NO_RESULT;
+        }
+        return resultLocal - offset;
+    }
+
+    long addStepsIteratively(TimeBoundaries timeBoundaries, long time, int count, long step) {
+        int incdec = 1;
+        if (count < 0)
+            incdec = -1;
+
+        for (int i = 0; i < Math.abs(count); ++i) {
+            time += incdec * step;
+            int hour = getHourOfDay(time);
+            if (timeBoundaries.startHour != -1 && hour < timeBoundaries.startHour) {
+                time = withHourOfDay(time, timeBoundaries.endHour);
+                if (timeBoundaries.minuteInterval > 60)
+                    time += (timeBoundaries.minuteInterval / -60 + 1) * HOUR;
+                time = addDays(time, -1);
+            } else if (timeBoundaries.endHour != -1 && hour >= timeBoundaries.endHour) {
+                if (time > createReference(timeBoundaries, time)) {
+                    time = withHourOfDay(time, timeBoundaries.startHour);
+                    time = addDays(time, 1);
+                }
+            }
+        }
+        return time;
+    }
+
+    public TimeObject getYear(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+
+        time = alignMinuteInterval(timeBoundaries, time);
+
+        int year = getYear(time);
+        // first millisecond of the year
+        long displayTime = time(year, 1, 1, 0, 0, 0, 0);
+        CharSequence display = labelFormat.format(this, displayTime);
+
+        // decrement at the half of the minuteinterval
+        long startTime = minStartTime(timeBoundaries, displayTime + timeBoundaries.minuteInterval * -30 * SECOND);
+        // last millisecond of the year
+        long endTime = maxEndTime(timeBoundaries, time(year, 12, 31, 23, 59, 59, 999));
+        return createTimeObject(timeBoundaries, labelFormat, display, startTime, endTime, displayTime, false);
+    }
+
+    public TimeObject getMonth(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+
+        time = alignMinuteInterval(timeBoundaries, time);
+
+        long local = toLocal(time);
+        int date = dateOf(dayOf(local));
+        // first millisecond of the month
+        long displayTime = time(yearOf(date), monthOf(date), 1, 0, 0, 0, 0);
+        CharSequence display = labelFormat.format(this, displayTime);
+
+        long startTime;
+        if (timeBoundaries.startHour != -1) {
+            // when decrementing the minuteInterval we would land at 23:45 the previous day
+            startTime = withHourOfDay(displayTime, timeBoundaries.startHour);
+        } else {
+            // decrement at the half of the minuteinterval
+            startTime = displayTime + timeBoundaries.minuteInterval * -30 * SECOND;
+        }
+        startTime = minStartTime(timeBoundaries, startTime);
+
+        // last millisecond of the month
+        long endTime;
+        if (timeBoundaries.endHour != -1) {
+            // maxEndTime will truncate to the last allowed time of day.
+            long startLocal = toLocal(startTime);
+            int end = dateOf(dayOf(startLocal));
+            endTime = time(yearOf(end), monthOf(end), monthLength(yearOf(end), monthOf(end)), timeBoundaries.endHour, 59, 59, (int) floorMod(startLocal, SECOND));
+        } else {
+            endTime = addMonths(startTime, 1, true) - 1;
+        }
+        endTime = maxEndTime(timeBoundaries, endTime);
+
+        return createTimeObject(timeBoundaries, labelFormat, display, startTime, endTime, displayTime, false);
+    }
+
+    public TimeObject getWeek(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+
+        time = alignMinuteInterval(timeBoundaries, time);
+
+        int week = getWeekOfYear(time);
+        int dayOfWeek = getDayOfWeek(time) - 1;
+        // first millisecond of the week
+        long displayTime = withTimeOfDay(addDays(time, -dayOfWeek), 0, 0, 0, 0);
+        String display = labelFormat.format(week);
+        String primary = labelFormat.formatPart(0, week);
+        String secondary = labelFormat.formatPart(1, week);
+        String tertiary = labelFormat.formatPart(2, week);
+
+        // decrement at the half of the minuteinterval
+        long startTime = minStartTime(timeBoundaries, displayTime + timeBoundaries.minuteInterval * -30 * SECOND);
+        // last millisecond of the week
+        long endTime = maxEndTime(timeBoundaries, addDays(startTime, 7) - 1);
+        return createTimeObject(timeBoundaries, display, primary, secondary, tertiary, startTime, endTime, displayTime, false);
+    }
+
+    public TimeObject getDay(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+
+        time = alignMinuteInterval(timeBoundaries, time);
+
+        // first millisecond of the day
+        long displayTime = withTimeOfDay(time, 0, 0, 0, 0);
+        CharSequence display = labelFormat.format(this, displayTime);
+
+        long startTime;
+        if (timeBoundaries.startHour != -1) {
+            // when decrementing the minuteInterval we would land at 23:45 the previous day
+            startTime = withHourOfDay(displayTime, timeBoundaries.startHour);
+        } else {
+            // decrement at the half of the minuteinterval
+            startTime = displayTime + timeBoundaries.minuteInterval * -30 * SECOND;
+        }
+        startTime = minStartTime(timeBoundaries, startTime);
+
+        // last millisecond of the day
+        long endTime;
+        if (timeBoundaries.endHour != -1) {
+            // maxEndTime will truncate to the last allowed time of day.
+            endTime = withTimeOfDay(startTime, timeBoundaries.endHour, 59, 59, (int) floorMod(toLocal(startTime), SECOND));
+        } else {
+            endTime = addDays(startTime, 1) - 1;
+        }
+        endTime = maxEndTime(timeBoundaries, endTime);
+
+        return createTimeObject(timeBoundaries, labelFormat, display, startTime, endTime, displayTime, false);
+    }
+
+    public TimeObject getHour(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+
+        time = alignMinuteInterval(timeBoundaries, time);
+
+        // get the first millisecond of that hour
+        long displayTime = withTimeOfDay(time, getHourOfDay(time), 0, 0, 0);
+        CharSequence display = labelFormat.format(this, displayTime);
+
+        // decrement at the half of the minuteinterval
+        long temp = displayTime + timeBoundaries.minuteInterval * -30 * SECOND;
+        long startTime = minStartTime(timeBoundaries, temp);
+
+        // get the last millisecond of that hour
+        long endTime = maxEndTime(timeBoundaries, temp + HOUR - 1);
+
+        return createTimeObject(timeBoundaries, labelFormat, display, startTime, endTime, displayTime, true);
+    }
+
+    public TimeObject getMinute(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+
+        long displayTime = alignMinuteInterval(timeBoundaries, time);
+        CharSequence display = labelFormat.format(this, displayTime);
+
+        // decrement at the half of the minuteinterval
+        long temp = displayTime + timeBoundaries.minuteInterval * -30 * SECOND;
+        long startTime = minStartTime(timeBoundaries, temp);
+
+        long endTime = maxEndTime(timeBoundaries, temp + timeBoundaries.minuteInterval * MINUTE - 1);
+
+        return createTimeObject(timeBoundaries, labelFormat, display, startTime, endTime, displayTime, true);
+    }
+
+    private TimeObject createTimeObject(TimeBoundaries timeBoundaries, LabelFormat labelFormat, CharSequence display, long startTime, long endTime, long displayTime, boolean checkHours) {
+        if (labelFormat.getPartCount() == 1) {
+            return createTimeObject(timeBoundaries, display, display, null, null, startTime, endTime, displayTime, checkHours);
+        }
+        return createTimeObject(timeBoundaries, display, labelFormat.formatPart(0, this, displayTime),
+                labelFormat.formatPart(1, this, displayTime), labelFormat.formatPart(2, this, displayTime),
+                startTime, endTime, displayTime, checkHours);
+    }
+
+    private TimeObject createTimeObject(TimeBoundaries timeBoundaries, CharSequence display, CharSequence primary, CharSequence secondary, CharSequence tertiary,
+                                        long startTime, long endTime, long displayTime, boolean checkHours) {
+        TimeObject timeObject = new TimeObject(display, primary, secondary, tertiary, startTime, endTime, displayTime);
+        setOob(timeBoundaries, timeObject, checkHours);
+        timeObject.setCalendarAttributes(getCalendarAttributes(displayTime));
+        return timeObject;
+    }
+
+    public void setOob(TimeBoundaries timeBoundaries, TimeObject timeObject, boolean checkHours) {
+        boolean oob = false;
+        boolean oobLeft = false;
+        boolean oobRight = false;
+        if (timeBoundaries.minTime != -1 && timeBoundaries.minTime > timeObject.getStartTime()) {
+            oob = true;
+        }
+        if (timeBoundaries.maxTime != -1 && timeBoundaries.maxTime < timeObject.getEndTime()) {
+            oob = true;
+        }
+        if (timeBoundaries.minTime != -1 && timeBoundaries.minTime >= timeObject.getStartTime() && timeBoundaries.minTime <= timeObject.getEndTime()) {
+            oobLeft = true;
+            oob = false;
+        }
+        if (timeBoundaries.maxTime != -1 && timeBoundaries.maxTime >= timeObject.getStartTime() && timeBoundaries.maxTime <= timeObject.getEndTime()) {
+            oobRight = true;
+            oob = false;
+        }
+        if (checkHours) {
+            long startTime = timeObject.getStartTime();
+            if (timeBoundaries.startHour != -1 && timeBoundaries.startHour == getHourOfDay(startTime) && getMinute(startTime) == 0) {
+                oobLeft = true;
+            } else if (timeBoundaries.endHour != -1) {
+                long endTime = timeObject.getEndTime();
+                if (endTime >= createReference(timeBoundaries, endTime))
+                    oobRight = true;
+            }
+        }
+        timeObject.setOob(oob, oobLeft, oobRight);
+    }
+
+    /**
+     * @return true if the calendar of the default locale is the gregorian one
+     */
+    boolean isGregorian() {
+        return gregorian;
+    }
+
+    /**
+     * Creates the label for the given time with String.format(). Used by LabelFormat for the
+     * formats it does not support.
+     */
+    String formatWithCalendar(String formatString, long time) {
+        synchronized (formatCalendar) {
+            formatCalendar.setTimeInMillis(time);
+            return String.format(formatString, formatCalendar, formatCalendar, formatCalendar);
+        }
+    }
+
+    /////////////////////////////////////////////////////////////////////////
+    // conversion between days since epoch and dates
+
+    /**
+     * @return the number of days since 1970-01-01 of the given local time
+     */
+    public static long dayOf(long local) {
+        return floorDiv(local, DAY);
+    }
+
+    /**
+     * @return the milliseconds since midnight of the given local time
+     */
+    public static long millisOfDay(long local) {
+        return floorMod(local, DAY);
+    }
+
+    /**
+     * @return the day of week of the given day since epoch, {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}
+     */
+    public static int dayOfWeek(long day) {
+        // 1970-01-01 was a thursday
+        return (int) floorMod(day + 4, 7) + Calendar.SUNDAY;
+    }
+
+    /**
+     * Converts the days since epoch to a date in the proleptic gregorian calendar. The date is
+     * packed into an int, use {@link #yearOf(int)}, {@link #monthOf(int)} and {@link #dayOfMonthOf(int)}
+     * to read it.
+     */
+    public static int dateOf(long day) {
+        long z = day + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int dayOfMonth = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yoe + era * 400 + (month <= 2 ? 1 : 0));
+        return (year << 9) | (month << 5) | dayOfMonth;
+    }
+
+    /**
+     * @return the year of a date created by {@link #dateOf(long)}
+     */
+    public static int yearOf(int date) {
+        return date >> 9;
+    }
+
+    /**
+     * @return the month (1 to 12) of a date created by {@link #dateOf(long)}
+     */
+    public static int monthOf(int date) {
+        return (date >> 5) & 0xF;
+    }
+
+    /**
+     * @return the day of month (1 to 31) of a date created by {@link #dateOf(long)}
+     */
+    public static int dayOfMonthOf(int date) {
+        return date & 0x1F;
+    }
+
+    /**
+     * @return the number of days since 1970-01-01 of the given date
+     */
+    public static long daysOf(int year, int month, int dayOfMonth) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yoe = y - era * 400;
+        long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + dayOfMonth - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int monthLength(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    static long floorDiv(long x, long y) {
+        long r = x / y;
+        if ((x % y != 0) && ((x ^ y) < 0)) {
+            r--;
+        }
+        return r;
+    }
+
+    static long floorMod(long x, long y) {
+        return x - floorDiv(x, y) * y;
+    }
+
+    /**
+     * A range of utc time in which the offset of the zone is constant
+     */
+    /**
+     * The instances passed to the last {@link #forZone(TimeZone, Locale)} and the engine it
+     * returned. The timezone is mutable, so its id and raw offset are compared as well.
+     */
+    private static final class Lookup {
+
+        final TimeZone zone;
+
+        final String zoneId;
+
+        final int rawOffset;
+
+        final Locale locale;
+
+        final CalendarEngine engine;
+
+        Lookup(TimeZone zone, Locale locale, CalendarEngine engine) {
+            this.zone = zone;
+            this.zoneId = zone.getID();
+            this.rawOffset = zone.getRawOffset();
+            this.locale = locale;
+            this.engine = engine;
+        }
+
+        boolean matches(TimeZone zone, Locale locale) {
+            return zone == this.zone && locale == this.locale
+                    && zone.getID() == zoneId && zone.getRawOffset() == rawOffset;
+        }
+    }
+
+    private static final class OffsetWindow {
+
+        final long start;
+
+        final long end;
+
+        final int offset;
+
+        OffsetWindow(long start, long end, int offset) {
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+    }
+}
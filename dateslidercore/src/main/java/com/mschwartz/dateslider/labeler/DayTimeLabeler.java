@@ -0,0 +1,25 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+
+/**
+ * A TimeLabeler that produces days
+ */
+public class DayTimeLabeler extends TimeLabeler {
+
+    public DayTimeLabeler(String formatString, TimeBoundaries timeBoundaries) {
+        super(formatString, timeBoundaries);
+    }
+
+    @Override
+    public TimeObject add(long time, int val) {
+        return Util.addDays(time, val, mLabelFormat, boundaries());
+    }
+
+    @Override
+    public TimeObject getElem(long time) {
+        return Util.getDay(time, mLabelFormat, boundaries());
+    }
+
+}
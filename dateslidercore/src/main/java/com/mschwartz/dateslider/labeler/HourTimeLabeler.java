@@ -0,0 +1,25 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+
+/**
+ * A TimeLabeler that produces hours
+ */
+public class HourTimeLabeler extends TimeLabeler {
+
+    public HourTimeLabeler(String formatString, TimeBoundaries timeBoundaries) {
+        super(formatString, timeBoundaries);
+    }
+
+    @Override
+    public TimeObject add(long time, int val) {
+        return Util.addHours(time, val, mLabelFormat, boundaries());
+    }
+
+    @Override
+    public TimeObject getElem(long time) {
+        return Util.getHour(time, mLabelFormat, boundaries());
+    }
+
+}
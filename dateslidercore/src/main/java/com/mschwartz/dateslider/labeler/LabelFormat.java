@@ -0,0 +1,659 @@
+package com.mschwartz.dateslider.labeler;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A labelerFormat string which is parsed once and then used to create the labels of many
+ * TimeObjects. The output is the same as the one of String.format() with a Calendar (or the
+ * week number for week labels) as argument, but the digits and names are written directly
+ * into a reusable buffer.
+ * <p/>
+ * Supported are the date/time conversions %tb, %th, %tB, %ta, %tA, %tY, %ty, %tC, %td, %te,
+ * %tm, %tj, %tH, %tk, %tI, %tl, %tM, %tS, %tL, %tp, %tR, %tT, %tr, %tD, %tF and their
+ * upper case variants %T..., %d for the week number and %% and %n. Formats using anything
+ * else, e.g. flags, widths or argument indices, are passed to String.format().
+ * <p/>
+ * Most labels only depend on a few fields with a small range, e.g. the minute, the hour or the
+ * day of month and weekday. For these formats the labels are kept in a table per locale, so
+ * every label is only created once and then shared by all TimeObjects showing it.
+ * <p/>
+ * A pattern is also split into up to three parts at its spaces, e.g. "%td %ta" into the day of
+ * month and the weekday, which multi-line TimeViews show on separate lines. Only the spaces of
+ * the pattern separate the parts, so a month or weekday name containing a space stays in one
+ * part. The third part contains the rest of the pattern.
+ * <p/>
+ * Instances are thread safe.
+ */
+public final class LabelFormat {
+
+    private static final int MAX_CACHED_FORMATS = 32;
+
+    private static final Map<String, LabelFormat> sFormats = new HashMap<String, LabelFormat>();
+
+    /**
+     * CalendarEngine.formatWithCalendar() passes the Calendar this many times to String.format(),
+     * so formats with more conversions fail there.
+     */
+    private static final int MAX_DATE_ARGUMENTS = 3;
+
+    /**
+     * Marks a literal segment
+     */
+    private static final char LITERAL = 0;
+
+    /**
+     * Marks the %d segment of a week format
+     */
+    private static final char INTEGER = 1;
+
+    /**
+     * The largest table of labels which is created for a format
+     */
+    private static final int MAX_TABLE_SIZE = 4096;
+
+    /**
+     * The week numbers which are kept in the table of an integer format
+     */
+    private static final int MAX_TABLE_INTEGER = 54;
+
+    /**
+     * The maximum number of parts of a label
+     */
+    public static final int MAX_PARTS = 3;
+
+    private static final int FIELD_MONTH = 1;
+    private static final int FIELD_DAY_OF_MONTH = 1 << 1;
+    private static final int FIELD_DAY_OF_WEEK = 1 << 2;
+    private static final int FIELD_HOUR = 1 << 3;
+    private static final int FIELD_MINUTE = 1 << 4;
+    private static final int FIELD_SECOND = 1 << 5;
+
+    private final String pattern;
+
+    /**
+     * The conversion character of every segment, LITERAL or INTEGER for the special segments
+     */
+    private final char[] conversions;
+
+    /**
+     * True for the segments of %T conversions
+     */
+    private final boolean[] upperCase;
+
+    /**
+     * The text of the literal segments
+     */
+    private final String[] literals;
+
+    /**
+     * True if the pattern can be formatted without String.format() for a time
+     */
+    private final boolean dateFormat;
+
+    /**
+     * True if the pattern can be formatted without String.format() for a number
+     */
+    private final boolean integerFormat;
+
+    /**
+     * The FIELD_ constants of the fields a date format depends on
+     */
+    private final int fields;
+
+    /**
+     * The number of labels in a table, 0 if the labels are not kept in a table
+     */
+    private final int tableSize;
+
+    /**
+     * The formats of the parts of the pattern, null if the pattern has only one part
+     */
+    private final LabelFormat[] parts;
+
+    /**
+     * The tables of labels for all locales used so far
+     */
+    private final Map<Locale, String[]> tables = new HashMap<Locale, String[]>();
+
+    /**
+     * The table for the current locale, the labels are created on first use
+     */
+    private String[] table;
+
+    private char[] buffer = new char[32];
+
+    private int length;
+
+    private Locale locale;
+
+    private char zeroDigit;
+
+    private String[] months;
+
+    private String[] shortMonths;
+
+    private String[] weekdays;
+
+    private String[] shortWeekdays;
+
+    private String[] amPmStrings;
+
+    /**
+     * Returns the compiled form of the given pattern. The most recently used patterns are kept,
+     * so the same format string is only parsed once.
+     */
+    public static LabelFormat of(String pattern) {
+        synchronized (sFormats) {
+            LabelFormat labelFormat = sFormats.get(pattern);
+            if (labelFormat == null) {
+                if (sFormats.size() >= MAX_CACHED_FORMATS) {
+                    sFormats.clear();
+                }
+                labelFormat = new LabelFormat(pattern);
+                sFormats.put(pattern, labelFormat);
+            }
+            return labelFormat;
+        }
+    }
+
+    /**
+     * @param pattern a format string for String.format()
+     */
+    public LabelFormat(String pattern) {
+        this(pattern, true);
+    }
+
+    /**
+     * @param split true if the pattern is split into parts
+     */
+    private LabelFormat(String pattern, boolean split) {
+        this.pattern = pattern;
+
+        StringBuilder conversions = new StringBuilder();
+        StringBuilder upperCase = new StringBuilder();
+        List<String> literals = new ArrayList<String>();
+        StringBuilder literal = new StringBuilder();
+        boolean supported = true;
+        int dateConversions = 0;
+        int integerConversions = 0;
+        int fields = 0;
+        boolean tabular = true;
+
+        int length = pattern.length();
+        for (int i = 0; i < length && supported; i++) {
+            char c = pattern.charAt(i);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i + 1 >= length) {
+                supported = false;
+                break;
+            }
+            char conversion = pattern.charAt(++i);
+            if (conversion == '%') {
+                literal.append('%');
+            } else if (conversion == 'n') {
+                literal.append(System.getProperty("line.separator"));
+            } else if (conversion == 'd') {
+                flushLiteral(literal, conversions, upperCase, literals);
+                conversions.append(INTEGER);
+                upperCase.append('f');
+                literals.add(null);
+                integerConversions++;
+            } else if ((conversion == 't' || conversion == 'T') && i + 1 < length) {
+                String expanded = expand(pattern.charAt(++i));
+                if (expanded == null) {
+                    supported = false;
+                    break;
+                }
+                flushLiteral(literal, conversions, upperCase, literals);
+                for (int j = 0; j < expanded.length(); j++) {
+                    char e = expanded.charAt(j);
+                    if (e == ':' || e == '/' || e == '-' || e == ' ') {
+                        conversions.append(LITERAL);
+                        upperCase.append('f');
+                        literals.add(String.valueOf(e));
+                    } else {
+                        int field = fieldOf(e);
+                        if (field == 0) {
+                            tabular = false;
+                        }
+                        fields |= field;
+                        conversions.append(e);
+                        // the am/pm marker of %tr is always upper case
+                        upperCase.append(conversion == 'T' || (e == 'P') ? 't' : 'f');
+                        literals.add(null);
+                    }
+                }
+                dateConversions++;
+            } else {
+                supported = false;
+            }
+        }
+        flushLiteral(literal, conversions, upperCase, literals);
+
+        this.conversions = new char[conversions.length()];
+        this.upperCase = new boolean[conversions.length()];
+        for (int i = 0; i < this.conversions.length; i++) {
+            this.conversions[i] = conversions.charAt(i) == 'P' ? 'p' : conversions.charAt(i);
+            this.upperCase[i] = upperCase.charAt(i) == 't';
+        }
+        this.literals = literals.toArray(new String[literals.size()]);
+        dateFormat = supported && integerConversions == 0 && dateConversions <= MAX_DATE_ARGUMENTS;
+        integerFormat = supported && dateConversions == 0 && integerConversions <= 1;
+        this.fields = fields;
+        if (dateFormat) {
+            int size = tabular ? tableSize(fields) : 0;
+            tableSize = size <= MAX_TABLE_SIZE ? size : 0;
+        } else if (integerFormat) {
+            tableSize = MAX_TABLE_INTEGER;
+        } else {
+            tableSize = 0;
+        }
+        parts = split ? splitParts(pattern) : null;
+    }
+
+    /**
+     * @return the formats of the parts of the given pattern, separated by spaces outside of
+     * conversions, or null if the pattern has only one part
+     */
+    private static LabelFormat[] splitParts(String pattern) {
+        List<LabelFormat> parts = new ArrayList<LabelFormat>(MAX_PARTS);
+        int length = pattern.length();
+        int start = 0;
+        for (int i = 0; i < length && parts.size() < MAX_PARTS - 1; i++) {
+            char c = pattern.charAt(i);
+            if (c == '%') {
+                // skip the conversion, %t and %T are followed by another character
+                if (i + 1 < length && (pattern.charAt(i + 1) == 't' || pattern.charAt(i + 1) == 'T')) {
+                    i++;
+                }
+                i++;
+            } else if (c == ' ') {
+                if (i > start) {
+                    parts.add(new LabelFormat(pattern.substring(start, i), false));
+                }
+                start = i + 1;
+            }
+        }
+        if (parts.isEmpty()) {
+            return null;
+        }
+        if (start < length) {
+            parts.add(new LabelFormat(pattern.substring(start), false));
+        }
+        return parts.size() > 1 ? parts.toArray(new LabelFormat[parts.size()]) : null;
+    }
+
+    /**
+     * @return the FIELD_ constant the given simple conversion depends on, 0 if it depends on
+     * a field with too many values for a table
+     */
+    private static int fieldOf(char conversion) {
+        switch (conversion) {
+            case 'b':
+            case 'B':
+            case 'm':
+                return FIELD_MONTH;
+            case 'd':
+            case 'e':
+                return FIELD_DAY_OF_MONTH;
+            case 'a':
+            case 'A':
+                return FIELD_DAY_OF_WEEK;
+            case 'H':
+            case 'k':
+            case 'I':
+            case 'l':
+            case 'p':
+            case 'P':
+                return FIELD_HOUR;
+            case 'M':
+                return FIELD_MINUTE;
+            case 'S':
+                return FIELD_SECOND;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return the number of combinations of the given fields
+     */
+    private static int tableSize(int fields) {
+        long size = 1;
+        if ((fields & FIELD_MONTH) != 0)
+            size *= 12;
+        if ((fields & FIELD_DAY_OF_MONTH) != 0)
+            size *= 31;
+        if ((fields & FIELD_DAY_OF_WEEK) != 0)
+            size *= 7;
+        if ((fields & FIELD_HOUR) != 0)
+            size *= 24;
+        if ((fields & FIELD_MINUTE) != 0)
+            size *= 60;
+        if ((fields & FIELD_SECOND) != 0)
+            size *= 60;
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the simple conversions a %t conversion consists of, with the separators of the
+     * composite ones, or null if the conversion is not supported
+     */
+    private static String expand(char conversion) {
+        switch (conversion) {
+            case 'b':
+            case 'h':
+                return "b";
+            case 'B':
+            case 'a':
+            case 'A':
+            case 'Y':
+            case 'y':
+            case 'C':
+            case 'd':
+            case 'e':
+            case 'm':
+            case 'j':
+            case 'H':
+            case 'k':
+            case 'I':
+            case 'l':
+            case 'M':
+            case 'S':
+            case 'L':
+            case 'p':
+                return String.valueOf(conversion);
+            case 'R':
+                return "H:M";
+            case 'T':
+                return "H:M:S";
+            case 'r':
+                // P is the upper case am/pm marker
+                return "I:M:S P";
+            case 'D':
+                return "m/d/y";
+            case 'F':
+                return "Y-m-d";
+            default:
+                return null;
+        }
+    }
+
+    private static void flushLiteral(StringBuilder literal, StringBuilder conversions, StringBuilder upperCase, List<String> literals) {
+        if (literal.length() > 0) {
+            conversions.append(LITERAL);
+            upperCase.append('f');
+            literals.add(literal.toString());
+            literal.setLength(0);
+        }
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return the number of parts of the pattern, between 1 and MAX_PARTS
+     */
+    public int getPartCount() {
+        return parts != null ? parts.length : 1;
+    }
+
+    /**
+     * Formats the given part of the pattern like {@link #format(CalendarEngine, long)}.
+     *
+     * @return the label of the part, null if the pattern has no such part
+     */
+    public String formatPart(int part, CalendarEngine engine, long time) {
+        if (parts == null) {
+            return part == 0 ? format(engine, time) : null;
+        }
+        return part < parts.length ? parts[part].format(engine, time) : null;
+    }
+
+    /**
+     * Formats the given part of the pattern like {@link #format(int)}.
+     *
+     * @return the label of the part, null if the pattern has no such part
+     */
+    public String formatPart(int part, int value) {
+        if (parts == null) {
+            return part == 0 ? format(value) : null;
+        }
+        return part < parts.length ? parts[part].format(value) : null;
+    }
+
+    /**
+     * Formats the given time like String.format(pattern, calendar) with a calendar in the
+     * timezone of the engine.
+     */
+    public synchronized String format(CalendarEngine engine, long time) {
+        if (!dateFormat || !engine.isGregorian()) {
+            return engine.formatWithCalendar(pattern, time);
+        }
+        long local = engine.toLocal(time);
+        long day = CalendarEngine.dayOf(local);
+        int date = CalendarEngine.dateOf(day);
+        int year = CalendarEngine.yearOf(date);
+        if (year <= 1582) {
+            // the julian calendar is used before the gregorian cutover
+            return engine.formatWithCalendar(pattern, time);
+        }
+        int month = CalendarEngine.monthOf(date);
+        int dayOfMonth = CalendarEngine.dayOfMonthOf(date);
+        int millisOfDay = (int) CalendarEngine.millisOfDay(local);
+        int hour = millisOfDay / (int) CalendarEngine.HOUR;
+
+        updateLocale();
+        int index = -1;
+        if (table != null) {
+            index = tableIndex(month, dayOfMonth, CalendarEngine.dayOfWeek(day), hour, millisOfDay);
+            String label = table[index];
+            if (label != null) {
+                return label;
+            }
+        }
+        length = 0;
+        for (int i = 0; i < conversions.length; i++) {
+            switch (conversions[i]) {
+                case LITERAL:
+                    append(literals[i], false);
+                    break;
+                case 'b':
+                    append(shortMonths[month - 1], upperCase[i]);
+                    break;
+                case 'B':
+                    append(months[month - 1], upperCase[i]);
+                    break;
+                case 'a':
+                    append(shortWeekdays[CalendarEngine.dayOfWeek(day)], upperCase[i]);
+                    break;
+                case 'A':
+                    append(weekdays[CalendarEngine.dayOfWeek(day)], upperCase[i]);
+                    break;
+                case 'Y':
+                    appendNumber(year, 4);
+                    break;
+                case 'y':
+                    appendNumber(year % 100, 2);
+                    break;
+                case 'C':
+                    appendNumber(year / 100, 2);
+                    break;
+                case 'd':
+                    appendNumber(dayOfMonth, 2);
+                    break;
+                case 'e':
+                    appendNumber(dayOfMonth, 0);
+                    break;
+                case 'm':
+                    appendNumber(month, 2);
+                    break;
+                case 'j':
+                    appendNumber((int) (day - CalendarEngine.daysOf(year, 1, 1)) + 1, 3);
+                    break;
+                case 'H':
+                    appendNumber(hour, 2);
+                    break;
+                case 'k':
+                    appendNumber(hour, 0);
+                    break;
+                case 'I':
+                    appendNumber(hour % 12 == 0 ? 12 : hour % 12, 2);
+                    break;
+                case 'l':
+                    appendNumber(hour % 12 == 0 ? 12 : hour % 12, 0);
+                    break;
+                case 'M':
+                    appendNumber(millisOfDay / (int) CalendarEngine.MINUTE % 60, 2);
+                    break;
+                case 'S':
+                    appendNumber(millisOfDay / (int) CalendarEngine.SECOND % 60, 2);
+                    break;
+                case 'L':
+                    appendNumber(millisOfDay % 1000, 3);
+                    break;
+                case 'p':
+                    String amPm = amPmStrings[hour < 12 ? 0 : 1];
+                    append(upperCase[i] ? amPm.toUpperCase(locale) : amPm.toLowerCase(locale), false);
+                    break;
+            }
+        }
+        return store(index);
+    }
+
+    /**
+     * @return the index of the label with the given fields in the table
+     */
+    private int tableIndex(int month, int dayOfMonth, int dayOfWeek, int hour, int millisOfDay) {
+        int index = 0;
+        if ((fields & FIELD_MONTH) != 0)
+            index = month - 1;
+        if ((fields & FIELD_DAY_OF_MONTH) != 0)
+            index = index * 31 + dayOfMonth - 1;
+        if ((fields & FIELD_DAY_OF_WEEK) != 0)
+            index = index * 7 + dayOfWeek - 1;
+        if ((fields & FIELD_HOUR) != 0)
+            index = index * 24 + hour;
+        if ((fields & FIELD_MINUTE) != 0)
+            index = index * 60 + millisOfDay / (int) CalendarEngine.MINUTE % 60;
+        if ((fields & FIELD_SECOND) != 0)
+            index = index * 60 + millisOfDay / (int) CalendarEngine.SECOND % 60;
+        return index;
+    }
+
+    /**
+     * Creates the label from the buffer and keeps it in the table
+     *
+     * @param index the index in the table, -1 if the label is not kept
+     */
+    private String store(int index) {
+        String label = new String(buffer, 0, length);
+        if (index >= 0) {
+            table[index] = label;
+        }
+        return label;
+    }
+
+    /**
+     * Formats the given number like String.format(pattern, value).
+     */
+    public synchronized String format(int value) {
+        if (!integerFormat) {
+            return String.format(pattern, value);
+        }
+        updateLocale();
+        int index = -1;
+        if (table != null && value >= 0 && value < table.length) {
+            index = value;
+            String label = table[index];
+            if (label != null) {
+                return label;
+            }
+        }
+        length = 0;
+        for (int i = 0; i < conversions.length; i++) {
+            if (conversions[i] == LITERAL) {
+                append(literals[i], false);
+            } else {
+                if (value < 0) {
+                    append("-", false);
+                    appendNumber(-value, 0);
+                } else {
+                    appendNumber(value, 0);
+                }
+            }
+        }
+        return store(index);
+    }
+
+    /**
+     * Loads the names and the zero digit of the default locale, String.format() uses it as well
+     */
+    private void updateLocale() {
+        Locale current = Locale.getDefault();
+        if (current.equals(locale)) {
+            return;
+        }
+        DateFormatSymbols symbols = DateFormatSymbols.getInstance(current);
+        months = symbols.getMonths();
+        shortMonths = symbols.getShortMonths();
+        weekdays = symbols.getWeekdays();
+        shortWeekdays = symbols.getShortWeekdays();
+        amPmStrings = symbols.getAmPmStrings();
+        zeroDigit = DecimalFormatSymbols.getInstance(current).getZeroDigit();
+        locale = current;
+        if (tableSize > 0) {
+            table = tables.get(current);
+            if (table == null) {
+                table = new String[tableSize];
+                tables.put(current, table);
+            }
+        }
+    }
+
+    private void append(String s, boolean toUpperCase) {
+        if (toUpperCase) {
+            s = s.toUpperCase(locale);
+        }
+        int n = s.length();
+        ensureCapacity(length + n);
+        s.getChars(0, n, buffer, length);
+        length += n;
+    }
+
+    /**
+     * Appends a non negative number with the localized digits, padded with zeros to the given width
+     */
+    private void appendNumber(int value, int width) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int n = Math.max(digits, width);
+        ensureCapacity(length + n);
+        int pos = length + n;
+        for (int i = 0; i < n; i++) {
+            buffer[--pos] = (char) (zeroDigit + value % 10);
+            value /= 10;
+        }
+        length += n;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            char[] larger = new char[Math.max(capacity, buffer.length * 2)];
+            System.arraycopy(buffer, 0, larger, 0, length);
+            buffer = larger;
+        }
+    }
+}
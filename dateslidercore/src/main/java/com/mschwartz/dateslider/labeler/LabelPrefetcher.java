@@ -0,0 +1,190 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeObject;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Computes the TimeObjects which will come into view during a fling on a background thread.
+ * The scrolling thread requests them with {@link #prefetch(TimeLabeler, long, TimeObject, int, int)}
+ * when the fling starts and takes them with {@link #fill(TimeObject[], int, int, int, long)}
+ * instead of computing them itself. The elements are handed over without locking: the
+ * background thread publishes immutable batches of consecutive elements, the scrolling thread
+ * uses the latest batch if it was created for the same TimeBoundaries version and direction.
+ * <p/>
+ * The labeler passed to prefetch() is used on the background thread only, so it must not be
+ * the labeler of the scrolling thread, and its TimeBoundaries must not change.
+ */
+public class LabelPrefetcher {
+
+    /**
+     * The maximum number of elements computed for one fling
+     */
+    public static final int MAX_ELEMENTS = 512;
+
+    /**
+     * The number of elements computed before they are published
+     */
+    private static final int CHUNK_SIZE = 16;
+
+    private static ExecutorService sExecutor;
+
+    /**
+     * The elements of the current fling
+     */
+    private final AtomicReference<Batch> mBatch = new AtomicReference<Batch>();
+
+    /**
+     * Incremented for every fling and every cancel(), a background task stops as soon as it
+     * belongs to an older generation
+     */
+    private final AtomicInteger mGeneration = new AtomicInteger();
+
+    /**
+     * The executor shared by all prefetchers. Its thread is a daemon with a low priority, so it
+     * neither keeps the process alive nor competes with the drawing.
+     */
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "LabelPrefetcher");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    /**
+     * Starts computing the elements following the given one. The elements of a previous call
+     * are dropped.
+     *
+     * @param labeler the labeler used on the background thread
+     * @param version the version of the TimeBoundaries of the labeler
+     * @param start   the element at the end of the layout the fling is moving to
+     * @param step    1 if the fling moves to later times, -1 if it moves to earlier times
+     * @param count   the number of elements to compute after start
+     */
+    public void prefetch(final TimeLabeler labeler, final long version, TimeObject start, final int step, int count) {
+        final int generation = mGeneration.incrementAndGet();
+        mBatch.set(null);
+        count = Math.min(count, MAX_ELEMENTS);
+        if (count <= 0) {
+            return;
+        }
+        // the elements are kept in ascending order, so a fling to earlier times fills the
+        // array from its end
+        final TimeObject[] elements = new TimeObject[count + 1];
+        final int startIndex = step > 0 ? 0 : count;
+        elements[startIndex] = start;
+        getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                int filled = 0;
+                int total = elements.length - 1;
+                try {
+                    while (filled < total && mGeneration.get() == generation) {
+                        int n = Math.min(CHUNK_SIZE, total - filled);
+                        labeler.addRange(elements, startIndex + filled * step, step, n);
+                        filled += n;
+                        int from = step > 0 ? 0 : startIndex - filled;
+                        int to = step > 0 ? filled + 1 : elements.length;
+                        Batch batch = new Batch(version, step, elements, from, to);
+                        // do not replace the batch of a newer fling
+                        if (mGeneration.get() == generation) {
+                            mBatch.set(batch);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    // the scrolling thread computes the remaining elements itself
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops the computation of the current fling and drops its elements.
+     */
+    public void cancel() {
+        mGeneration.incrementAndGet();
+        mBatch.set(null);
+    }
+
+    /**
+     * Fills the elements after the one at index with prefetched elements, like
+     * {@link TimeLabeler#addRange(TimeObject[], int, int, int)} does.
+     *
+     * @param version the current version of the TimeBoundaries
+     * @return the number of elements which have been filled, the remaining ones must be
+     * computed by the caller
+     */
+    public int fill(TimeObject[] elements, int index, int step, int count, long version) {
+        Batch batch = mBatch.get();
+        if (batch == null || batch.version != version || batch.step != step) {
+            return 0;
+        }
+        int position = batch.indexOf(elements[index].getDisplayTime());
+        if (position < 0) {
+            return 0;
+        }
+        int filled = 0;
+        for (position += step; filled < count && position >= batch.from && position < batch.to; position += step) {
+            filled++;
+            elements[index + filled * step] = batch.elements[position];
+        }
+        return filled;
+    }
+
+    /**
+     * The consecutive elements computed so far. Only the range from..to of the array is
+     * published, the background thread may still be writing the rest of it.
+     */
+    private static final class Batch {
+
+        final long version;
+
+        final int step;
+
+        final TimeObject[] elements;
+
+        final int from;
+
+        final int to;
+
+        Batch(long version, int step, TimeObject[] elements, int from, int to) {
+            this.version = version;
+            this.step = step;
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return the index of the element with the given display time, -1 if there is none
+         */
+        int indexOf(long displayTime) {
+            int low = from;
+            int high = to - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                long midTime = elements[mid].getDisplayTime();
+                if (midTime < displayTime) {
+                    low = mid + 1;
+                } else if (midTime > displayTime) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+}
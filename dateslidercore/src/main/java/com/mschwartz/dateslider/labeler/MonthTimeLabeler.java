@@ -0,0 +1,25 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+
+/**
+ * A TimeLabeler that produces months
+ */
+public class MonthTimeLabeler extends TimeLabeler {
+
+    public MonthTimeLabeler(String formatString, TimeBoundaries timeBoundaries) {
+        super(formatString, timeBoundaries);
+    }
+
+    @Override
+    public TimeObject add(long time, int val) {
+        return Util.addMonths(time, val, mLabelFormat, boundaries());
+    }
+
+    @Override
+    public TimeObject getElem(long time) {
+        return Util.getMonth(time, mLabelFormat, boundaries());
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeObject;
+
+/**
+ * Supplies flags of the app for the TimeObjects of a labeler, e.g. a bit for public holidays
+ * or for days with appointments. The flags are set once when a TimeObject is created and can be
+ * read by the views with {@link TimeObject#getAppFlags()}.
+ */
+public interface TimeAttributeProvider {
+
+    /**
+     * @param timeObject the new TimeObject, its times and calendar attributes are already set
+     * @return the flags of the given TimeObject, only the lower 16 bits are used
+     */
+    int getAppFlags(TimeObject timeObject);
+}
@@ -0,0 +1,360 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * This is the view independent part of a labeler. Its job is to generate TimeObjects
+ * from times. It does not know anything about android, so it can be used in plain java
+ * code, e.g. on a backend or in unit tests. The android library adds the creation of the
+ * views on top of it.
+ * <p/>
+ * The TimeObjects are computed from the current snapshot of the TimeBoundaries, see
+ * {@link #boundaries()}. The TimeBoundaries drop their snapshot when they are changed, so
+ * checking for a change is a single volatile read.
+ * <p/>
+ * The most recently created TimeObjects are kept in a small cache, so scrolling back and forth
+ * over the same elements does not compute them again. The cache is cleared when the snapshot
+ * of the TimeBoundaries or the default locale changes.
+ */
+public abstract class TimeLabeler {
+
+    /**
+     * The number of TimeObjects kept in the cache, enough for several rows of a wide layout
+     */
+    private static final int CACHE_SIZE = 128;
+
+    /**
+     * The number of estimations slotsBetween() makes before it walks unit by unit
+     */
+    private static final int MAX_ESTIMATIONS = 8;
+
+    /**
+     * The number of units slotsBetween() walks at most after the estimations
+     */
+    private static final int MAX_WALK = 1024;
+
+    protected final String mFormatString;
+
+    /**
+     * The compiled form of mFormatString
+     */
+    protected final LabelFormat mLabelFormat;
+
+    /**
+     * The boundaries of the dialog, changed in place by the slider. Subclasses compute the
+     * TimeObjects from {@link #boundaries()} instead.
+     */
+    protected final TimeBoundaries timeBoundaries;
+
+    /**
+     * Sets the flags of the app on the TimeObjects, null if there are none
+     */
+    private TimeAttributeProvider mAttributeProvider;
+
+    /**
+     * The cached TimeObjects, keyed by the time and the number of units added to it
+     */
+    private final Map<CacheKey, TimeObject> mCache = new LinkedHashMap<CacheKey, TimeObject>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, TimeObject> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Reused for the lookups so a cache hit does not allocate anything
+     */
+    private final CacheKey mProbe = new CacheKey(0, 0);
+
+    private long mCacheHits;
+
+    private long mCacheMisses;
+
+    /**
+     * The snapshot of the TimeBoundaries the cached TimeObjects were created with
+     */
+    private TimeBoundaries.Snapshot mCachedSnapshot;
+
+    /**
+     * The locale the cached TimeObjects were created with
+     */
+    private Locale mCachedLocale;
+
+    /**
+     * @param formatString   the format string used to create the label of the TimeObjects
+     * @param timeBoundaries the boundaries of the dialog, must not be null
+     */
+    public TimeLabeler(String formatString, TimeBoundaries timeBoundaries) {
+        assert (timeBoundaries != null);
+        mFormatString = formatString;
+        mLabelFormat = formatString != null ? LabelFormat.of(formatString) : null;
+        this.timeBoundaries = timeBoundaries;
+    }
+
+    /**
+     * This method adds "val" time units (where a time unit is the amount of time that
+     * separates one TimeView generated by this labeler from the next -- e.g. if this
+     * labeler is producing TimeViews each representing a day, then a time unit would
+     * be a single day) to the specified time and returns a TimeObject representing
+     * the result.
+     * <p/>
+     * This method will be called constantly, whenever new date information is required.
+     *
+     * @param time The time
+     * @param val  The number of units to add to the time
+     * @return The resulting TimeObject
+     */
+    public abstract TimeObject add(long time, int val);
+
+    /**
+     * This method converts from a calendar to a TimeObject -- it does the actual
+     * work of turning a point time into the range and display string that compose
+     * a TimeObject.
+     *
+     * @param time The time to convert
+     * @return The resulting TimeObject
+     */
+    public abstract TimeObject getElem(long time);
+
+    /**
+     * Fills the whole array with consecutive elements. The element at centerIndex is the one
+     * representing the given time, the elements before and after it are the preceding and
+     * following time units.
+     *
+     * @param time        The time of the center element
+     * @param elements    The array to fill
+     * @param centerIndex The index of the center element
+     */
+    public void getRange(long time, TimeObject[] elements, int centerIndex) {
+        elements[centerIndex] = getElemCached(time);
+        addRange(elements, centerIndex, 1, elements.length - centerIndex - 1);
+        addRange(elements, centerIndex, -1, centerIndex);
+    }
+
+    /**
+     * Fills count consecutive elements next to the element at the given index, which must
+     * already be set. If step is 1 the elements after index are filled with the following time
+     * units, if step is -1 the elements before index are filled with the preceding ones.
+     * <p/>
+     * The default implementation calls {@link #addCached(long, int)} for each element. Subclasses
+     * may override it if they can compute a sequence of elements faster.
+     *
+     * @param elements The array to fill
+     * @param index    The index of the element to start from
+     * @param step     1 to fill the following elements, -1 to fill the preceding ones
+     * @param count    The number of elements to fill
+     */
+    public void addRange(TimeObject[] elements, int index, int step, int count) {
+        long time = elements[index].getDisplayTime();
+        for (int i = 1; i <= count; i++) {
+            TimeObject timeObject = addCached(time, step);
+            elements[index + i * step] = timeObject;
+            time = timeObject.getDisplayTime();
+        }
+    }
+
+    /**
+     * Calculates how many time units lie between two times, i.e. how often the element of from
+     * must be moved by one unit to reach the last element whose display time is not after to.
+     * <p/>
+     * The default implementation estimates the number from the average length of the units,
+     * refines it with a few calls of {@link #add(long, int)} and walks the last units one by one.
+     *
+     * @return the number of units, negative if to is before from
+     */
+    public int slotsBetween(long from, long to) {
+        TimeObject origin = getElemCached(from);
+        TimeObject elem = origin;
+        int slots = 0;
+        double unit = Math.max(1, Math.abs(add(origin.getDisplayTime(), 1).getDisplayTime() - origin.getDisplayTime()));
+        for (int i = 0; i < MAX_ESTIMATIONS; i++) {
+            double estimate = (to - elem.getDisplayTime()) / unit;
+            if (Math.abs(estimate) < 1) {
+                break;
+            }
+            int jump = (int) Math.max(Integer.MIN_VALUE / 2, Math.min(Integer.MAX_VALUE / 2, estimate));
+            elem = add(elem.getDisplayTime(), jump);
+            slots += jump;
+            if (slots != 0) {
+                // the average length including the gaps between the elements
+                unit = Math.max(1, Math.abs((double) (elem.getDisplayTime() - origin.getDisplayTime()) / slots));
+            }
+        }
+        // the elements around a DST change may not advance, so stop as soon as there is no progress
+        for (int i = 0; i < MAX_WALK; i++) {
+            if (elem.getDisplayTime() > to) {
+                TimeObject previous = add(elem.getDisplayTime(), -1);
+                if (previous.getDisplayTime() >= elem.getDisplayTime()) {
+                    break;
+                }
+                elem = previous;
+                slots--;
+            } else {
+                TimeObject next = add(elem.getDisplayTime(), 1);
+                if (next.getDisplayTime() > to || next.getDisplayTime() <= elem.getDisplayTime()) {
+                    break;
+                }
+                elem = next;
+                slots++;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Like {@link #add(long, int)}, but returns the cached TimeObject if the same units have
+     * been added to the same time before.
+     */
+    public TimeObject addCached(long time, int val) {
+        TimeObject timeObject = getCachedElem(time, val);
+        if (timeObject == null) {
+            timeObject = add(time, val);
+            putCachedElem(time, val, timeObject);
+        }
+        return timeObject;
+    }
+
+    /**
+     * Like {@link #getElem(long)}, but returns the cached TimeObject if it has been created for
+     * the same time before.
+     */
+    public TimeObject getElemCached(long time) {
+        TimeObject timeObject = getCachedElem(time, 0);
+        if (timeObject == null) {
+            timeObject = getElem(time);
+            putCachedElem(time, 0, timeObject);
+        }
+        return timeObject;
+    }
+
+    /**
+     * @param time the time passed to add() or getElem()
+     * @param val  the units added to the time, 0 for getElem()
+     * @return the cached TimeObject, or null if there is none
+     */
+    protected synchronized TimeObject getCachedElem(long time, int val) {
+        validateCache();
+        mProbe.time = time;
+        mProbe.val = val;
+        TimeObject timeObject = mCache.get(mProbe);
+        if (timeObject != null) {
+            mCacheHits++;
+        } else {
+            mCacheMisses++;
+        }
+        return timeObject;
+    }
+
+    /**
+     * Puts a TimeObject created by add() or getElem() into the cache.
+     *
+     * @param time the time passed to add() or getElem()
+     * @param val  the units added to the time, 0 for getElem()
+     */
+    protected synchronized void putCachedElem(long time, int val, TimeObject timeObject) {
+        // every TimeObject which is shown passes the cache, so the flags are set here once
+        if (mAttributeProvider != null) {
+            timeObject.setAppFlags(mAttributeProvider.getAppFlags(timeObject));
+        }
+        mCache.put(new CacheKey(time, val), timeObject);
+    }
+
+    /**
+     * Removes all cached TimeObjects. They are removed automatically when the TimeBoundaries
+     * change, call this method if a subclass creates different TimeObjects for other reasons.
+     */
+    public synchronized void clearCache() {
+        mCache.clear();
+    }
+
+    /**
+     * Sets the provider of the flags of the app on the TimeObjects created from now on. The
+     * provider is called on the thread creating the TimeObjects, which may be a background
+     * thread if the labels are prefetched.
+     *
+     * @param provider the provider, null to set no flags
+     */
+    public synchronized void setAttributeProvider(TimeAttributeProvider provider) {
+        mAttributeProvider = provider;
+        mCache.clear();
+    }
+
+    public synchronized TimeAttributeProvider getAttributeProvider() {
+        return mAttributeProvider;
+    }
+
+    /**
+     * @return the number of lookups which found a cached TimeObject
+     */
+    public synchronized long getCacheHits() {
+        return mCacheHits;
+    }
+
+    /**
+     * @return the number of lookups which had to create the TimeObject
+     */
+    public synchronized long getCacheMisses() {
+        return mCacheMisses;
+    }
+
+    /**
+     * Clears the cache if the boundaries or the locale have changed since the cached
+     * TimeObjects were created.
+     */
+    private void validateCache() {
+        TimeBoundaries.Snapshot snapshot = timeBoundaries.snapshot();
+        Locale locale = Locale.getDefault();
+        if (mCachedSnapshot != snapshot || !locale.equals(mCachedLocale)) {
+            mCache.clear();
+            mCachedSnapshot = snapshot;
+            mCachedLocale = locale;
+        }
+    }
+
+    /**
+     * Returns the boundaries the TimeObjects are computed from. They hold the values of the
+     * current snapshot of the TimeBoundaries and are not changed, so a TimeObject is computed
+     * from consistent values even if the slider changes the TimeBoundaries meanwhile.
+     */
+    protected TimeBoundaries boundaries() {
+        return timeBoundaries.snapshot().asTimeBoundaries();
+    }
+
+    public TimeBoundaries getTimeBoundaries() {
+        return timeBoundaries;
+    }
+
+    public String getFormatString() {
+        return mFormatString;
+    }
+
+    private static class CacheKey {
+
+        long time;
+
+        int val;
+
+        CacheKey(long time, int val) {
+            this.time = time;
+            this.val = val;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CacheKey))
+                return false;
+            CacheKey other = (CacheKey) o;
+            return time == other.time && val == other.val;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (time ^ (time >>> 32)) + val;
+        }
+    }
+}
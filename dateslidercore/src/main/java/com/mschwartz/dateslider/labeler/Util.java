@@ -0,0 +1,216 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+
+/**
+ * A bunch of static helpers for manipulating dates and times. There are two
+ * types of methods -- add*() methods that add a number of units to a time
+ * and return the result as a Calendar, and get*() objects that take a
+ * Calendar object and a format string and produce the appropriate TimeObject.
+ * <p/>
+ * The work is done by the {@link CalendarEngine} of the timezone, the get*() variants
+ * taking a long avoid creating a Calendar at all. The variants taking a {@link LabelFormat}
+ * avoid looking up the compiled format string.
+ */
+public class Util {
+
+    private static String TAG = "Util";
+
+
+    public static TimeObject addYears(long time, int years, String formatString, TimeBoundaries timeBoundaries) {
+        return addYears(time, years, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject addYears(long time, int years, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        CalendarEngine engine = engine(timeBoundaries);
+        return engine.getYear(engine.addYears(time, years), labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject addMonths(long time, int months, String formatString, TimeBoundaries timeBoundaries) {
+        return addMonths(time, months, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject addMonths(long time, int months, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        CalendarEngine engine = engine(timeBoundaries);
+
+        boolean last = false;
+        if (CalendarEngine.dayOfMonthOf(CalendarEngine.dateOf(CalendarEngine.dayOf(engine.toLocal(time)))) > 15)
+            last = true;
+
+        // if the original time represents end of month, return also a time representing the end of month.
+        // this is necessary when using minuteInterval since the time is half way before the displayed time (e.g. minuteInterval is 30, the time we get here will be 30th, nov, 23:45:00)
+        if (last)
+            time = engine.addMonths(time, months, true);
+        else
+            time = engine.addMonths(time, months);
+
+        return engine.getMonth(time, labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject addWeeks(long time, int weeks, String formatString, TimeBoundaries timeBoundaries) {
+        return addWeeks(time, weeks, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject addWeeks(long time, int weeks, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        CalendarEngine engine = engine(timeBoundaries);
+        return engine.getWeek(engine.addDays(time, weeks * 7), labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject addDays(long time, int days, String formatString, TimeBoundaries timeBoundaries) {
+        return addDays(time, days, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject addDays(long time, int days, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        CalendarEngine engine = engine(timeBoundaries);
+        return engine.getDay(engine.addDays(time, days), labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject addHours(long time, int hours, String formatString, TimeBoundaries timeBoundaries) {
+        return addHours(time, hours, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject addHours(long time, int hours, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        CalendarEngine engine = engine(timeBoundaries);
+        return engine.getHour(engine.addHours(timeBoundaries, time, hours), labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject addMinutes(long time, int minutes, String formatString, TimeBoundaries timeBoundaries) {
+        return addMinutes(time, minutes, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject addMinutes(long time, int minutes, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        CalendarEngine engine = engine(timeBoundaries);
+        return engine.getMinute(engine.addMinutes(timeBoundaries, time, minutes), labelFormat, timeBoundaries);
+    }
+
+    public static void setOob(TimeBoundaries timeBoundaries, TimeObject timeObject, boolean checkHours) {
+        engine(timeBoundaries).setOob(timeBoundaries, timeObject, checkHours);
+    }
+
+    public static TimeObject getYear(long time, String formatString, TimeBoundaries timeBoundaries) {
+        return getYear(time, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getYear(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        return engine(timeBoundaries).getYear(time, labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject getYear(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+        return engine(c).getYear(c.getTimeInMillis(), LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getMonth(long time, String formatString, TimeBoundaries timeBoundaries) {
+        return getMonth(time, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getMonth(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        return engine(timeBoundaries).getMonth(time, labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject getMonth(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+        return engine(c).getMonth(c.getTimeInMillis(), LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getWeek(long time, String formatString, TimeBoundaries timeBoundaries) {
+        return getWeek(time, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getWeek(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        return engine(timeBoundaries).getWeek(time, labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject getWeek(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+        return engine(c).getWeek(c.getTimeInMillis(), LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getDay(long time, String formatString, TimeBoundaries timeBoundaries) {
+        return getDay(time, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getDay(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        return engine(timeBoundaries).getDay(time, labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject getDay(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+        return engine(c).getDay(c.getTimeInMillis(), LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getHour(long time, String formatString, TimeBoundaries timeBoundaries) {
+        return getHour(time, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getHour(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        return engine(timeBoundaries).getHour(time, labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject getHour(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+        return engine(c).getHour(c.getTimeInMillis(), LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getMinute(long time, String formatString, TimeBoundaries timeBoundaries) {
+        return getMinute(time, LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static TimeObject getMinute(long time, LabelFormat labelFormat, TimeBoundaries timeBoundaries) {
+        return engine(timeBoundaries).getMinute(time, labelFormat, timeBoundaries);
+    }
+
+    public static TimeObject getMinute(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+        return engine(c).getMinute(c.getTimeInMillis(), LabelFormat.of(formatString), timeBoundaries);
+    }
+
+    public static Calendar minStartTime(TimeBoundaries timeBoundaries, Calendar calendar) {
+        calendar.setTimeInMillis(engine(calendar).minStartTime(timeBoundaries, calendar.getTimeInMillis()));
+        return calendar;
+    }
+
+    public static Calendar maxEndTime(TimeBoundaries timeBoundaries, Calendar calendar) {
+        calendar.setTimeInMillis(engine(calendar).maxEndTime(timeBoundaries, calendar.getTimeInMillis()));
+        return calendar;
+    }
+
+    protected static Calendar createReference(TimeBoundaries timeBoundaries, Calendar calendar) {
+        Calendar reference = Calendar.getInstance(calendar.getTimeZone());
+        reference.setTimeInMillis(engine(calendar).createReference(timeBoundaries, calendar.getTimeInMillis()));
+        return reference;
+    }
+
+    public static long bindToMinMax(TimeBoundaries timeBoundaries, long time) {
+        if (timeBoundaries.minTime != -1 && time < timeBoundaries.minTime)
+            time = timeBoundaries.minTime;
+        if (timeBoundaries.maxTime != -1 && time > timeBoundaries.maxTime)
+            time = timeBoundaries.maxTime;
+        return time;
+    }
+
+    /**
+     * aligns the given calendar time to the nearest minute interval.
+     *
+     * @param timeBoundaries
+     * @param calendar
+     * @return
+     */
+    public static Calendar alignMinuteInterval(TimeBoundaries timeBoundaries, Calendar calendar) {
+        calendar.setTimeInMillis(engine(calendar).alignMinuteInterval(timeBoundaries, calendar.getTimeInMillis()));
+        return calendar;
+    }
+
+    private static CalendarEngine engine(TimeBoundaries timeBoundaries) {
+        return CalendarEngine.forZone(timeBoundaries.timezone);
+    }
+
+    private static CalendarEngine engine(Calendar calendar) {
+        return CalendarEngine.forZone(calendar.getTimeZone());
+    }
+
+    public static String format(long time) {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        Calendar start = Calendar.getInstance();
+        start.setTimeInMillis(time);
+        return sdf.format(start.getTime());
+    }
+}
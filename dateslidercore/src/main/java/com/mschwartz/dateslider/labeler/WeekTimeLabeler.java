@@ -0,0 +1,25 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+
+/**
+ * A TimeLabeler that produces weeks
+ */
+public class WeekTimeLabeler extends TimeLabeler {
+
+    public WeekTimeLabeler(String formatString, TimeBoundaries timeBoundaries) {
+        super(formatString, timeBoundaries);
+    }
+
+    @Override
+    public TimeObject add(long time, int val) {
+        return Util.addWeeks(time, val, mLabelFormat, boundaries());
+    }
+
+    @Override
+    public TimeObject getElem(long time) {
+        return Util.getWeek(time, mLabelFormat, boundaries());
+    }
+
+}
@@ -0,0 +1,303 @@
+package com.mschwartz.dateslider;
+
+import com.mschwartz.dateslider.labeler.CalendarEngine;
+import com.mschwartz.dateslider.labeler.HourTimeLabeler;
+import com.mschwartz.dateslider.labeler.TimeLabeler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the scrolling of a {@link SliderModel} of hours without any view. The row is 500 pixels
+ * wide and has 7 slots of 100 pixels, a pixel is 36 seconds.
+ */
+public class SliderModelTest {
+
+    private static final long HOUR = CalendarEngine.HOUR;
+
+    private static final int WIDTH = 500;
+
+    private static final int SLOT_WIDTH = 100;
+
+    /**
+     * The time of one pixel
+     */
+    private static final long PIXEL = HOUR / SLOT_WIDTH;
+
+    private TimeBoundaries timeBoundaries;
+
+    private TimeLabeler labeler;
+
+    private SliderModel model;
+
+    private RecordingListener listener;
+
+    /**
+     * 2017-03-25 12:30 UTC
+     */
+    private long start;
+
+    @Before
+    public void setUp() {
+        TimeZone zone = TimeZone.getTimeZone("UTC");
+        Calendar c = Calendar.getInstance(zone);
+        c.clear();
+        c.set(2017, Calendar.MARCH, 25, 12, 30, 0);
+        start = c.getTimeInMillis();
+
+        timeBoundaries = new TimeBoundaries();
+        timeBoundaries.setTimezone(zone);
+        labeler = new HourTimeLabeler("%tH", timeBoundaries);
+        model = new SliderModel(labeler);
+        listener = new RecordingListener();
+        model.setListener(listener);
+        model.setTime(start);
+        model.setSize(WIDTH, SLOT_WIDTH);
+        model.resetScroll();
+    }
+
+    @Test
+    public void resetScrollCentersTheTime() {
+        assertEquals(7, model.getSlotCount());
+        assertEquals(3, model.getCenterIndex());
+        assertEquals(start - 30 * 60 * 1000, model.getCenterTimeObject().getDisplayTime());
+        assertTimeAt(start);
+        assertConsecutive();
+    }
+
+    @Test
+    public void scrollToMovesSlotsByLessThanSlotCount() {
+        TimeObject later = model.getSlots()[5];
+        assertTrue(model.scrollTo(model.getScrollX() + 2 * SLOT_WIDTH, false));
+        assertEquals(-2, listener.lastMove);
+        assertSame(later, model.getCenterTimeObject());
+        assertTimeAt(start + 2 * HOUR);
+        assertConsecutive();
+
+        TimeObject earlier = model.getSlots()[0];
+        assertTrue(model.scrollTo(model.getScrollX() - 3 * SLOT_WIDTH, false));
+        assertEquals(3, listener.lastMove);
+        assertSame(earlier, model.getCenterTimeObject());
+        assertTimeAt(start - HOUR);
+        assertConsecutive();
+    }
+
+    @Test
+    public void scrollToMovesSlotsByMoreThanSlotCount() {
+        model.scrollTo(model.getScrollX() + 10 * SLOT_WIDTH, false);
+        assertEquals(-10, listener.lastMove);
+        assertTimeAt(start + 10 * HOUR);
+        assertConsecutive();
+
+        model.scrollTo(model.getScrollX() - 25 * SLOT_WIDTH, false);
+        assertEquals(25, listener.lastMove);
+        assertTimeAt(start - 15 * HOUR);
+        assertConsecutive();
+    }
+
+    @Test
+    public void scrollToWithinSlotDoesNotMove() {
+        int scrollX = model.getScrollX();
+        assertFalse(model.scrollTo(scrollX, false));
+        assertTrue(model.scrollTo(scrollX + 20, false));
+        assertEquals(0, listener.moves);
+        assertEquals(scrollX + 20, model.getScrollX());
+        assertTimeAt(start + 20 * PIXEL);
+    }
+
+    @Test
+    public void scrollToStopsAtMaxTime() {
+        long maxTime = start + 3 * HOUR;
+        timeBoundaries.setMaxTime(maxTime);
+        int scrollX = model.getScrollX();
+        model.scrollTo(scrollX + 10 * SLOT_WIDTH, true);
+        assertEquals(1, listener.limits);
+        assertTrue(model.getScrollX() < scrollX + 10 * SLOT_WIDTH);
+        assertTimeAt(maxTime);
+    }
+
+    @Test
+    public void scrollToStopsAtMinTime() {
+        long minTime = start - 4 * HOUR;
+        timeBoundaries.setMinTime(minTime);
+        int scrollX = model.getScrollX();
+        model.scrollTo(scrollX - 10 * SLOT_WIDTH, true);
+        assertEquals(1, listener.limits);
+        assertTrue(model.getScrollX() > scrollX - 10 * SLOT_WIDTH);
+        assertTimeAt(minTime);
+    }
+
+    @Test
+    public void scrollToIgnoresLimitsIfNotChecked() {
+        timeBoundaries.setMaxTime(start + 3 * HOUR);
+        model.scrollTo(model.getScrollX() + 10 * SLOT_WIDTH, false);
+        assertEquals(0, listener.limits);
+        assertTimeAt(start + 10 * HOUR);
+    }
+
+    @Test
+    public void scrollExtentsWithoutLimits() {
+        assertEquals(Integer.MIN_VALUE, model.getMinScrollX());
+        assertEquals(Integer.MAX_VALUE, model.getMaxScrollX());
+    }
+
+    @Test
+    public void scrollExtentsLeadToLimits() {
+        long minTime = start - 5 * HOUR - 10 * 60 * 1000;
+        long maxTime = start + 7 * HOUR + 15 * 60 * 1000;
+        timeBoundaries.setMinTime(minTime);
+        timeBoundaries.setMaxTime(maxTime);
+        int scrollX = model.getScrollX();
+        int maxScrollX = model.getMaxScrollX();
+        int minScrollX = model.getMinScrollX();
+        assertEquals(scrollX + (double) (maxTime - start) / PIXEL, maxScrollX, 1);
+        assertEquals(scrollX - (double) (start - minTime) / PIXEL, minScrollX, 1);
+
+        model.scrollTo(maxScrollX, false);
+        assertTimeAt(maxTime);
+        // the extents do not depend on the position
+        assertEquals((double) maxScrollX, model.getMaxScrollX(), 1);
+        assertEquals((double) minScrollX, model.getMinScrollX(), 1);
+
+        model.scrollTo(minScrollX, false);
+        assertTimeAt(minTime);
+        assertEquals((double) maxScrollX, model.getMaxScrollX(), 1);
+        assertEquals((double) minScrollX, model.getMinScrollX(), 1);
+    }
+
+    @Test
+    public void followChildWithinCenterSlotAdjustsScroll() {
+        TimeObject[] slots = model.getSlots().clone();
+        int scrollX = model.getScrollX();
+        assertFalse(model.followChild(start + 15 * 60 * 1000));
+        assertEquals(0, listener.moves);
+        assertEquals(1, listener.relabels);
+        for (int i = 0; i < slots.length; i++) {
+            assertSame(slots[i], model.getSlots()[i]);
+        }
+        assertEquals((double) scrollX + 25, model.getScrollX(), 1);
+        assertTimeAt(start + 15 * 60 * 1000);
+    }
+
+    @Test
+    public void followChildOutsideCenterSlotRelabels() {
+        assertTrue(model.followChild(start + 5 * HOUR + 10 * 60 * 1000));
+        assertEquals(2, listener.relabels);
+        assertTimeAt(start + 5 * HOUR + 10 * 60 * 1000);
+        assertConsecutive();
+    }
+
+    @Test
+    public void followParentWithinCenterSlotKeepsEverything() {
+        int scrollX = model.getScrollX();
+        assertFalse(model.followParent(start + 20 * 60 * 1000));
+        assertEquals(1, listener.relabels);
+        assertEquals(scrollX, model.getScrollX());
+        assertEquals(start, model.getCurrentTime());
+    }
+
+    @Test
+    public void followParentOutsideCenterSlotRelabels() {
+        assertTrue(model.followParent(start - 26 * HOUR));
+        assertEquals(2, listener.relabels);
+        assertEquals(start - 26 * HOUR, model.getCurrentTime());
+        assertTimeAt(start - 26 * HOUR);
+        assertConsecutive();
+    }
+
+    @Test
+    public void fastFlingShowsOnePlaceholder() {
+        assertFalse(model.startFastFling(model.getScrollX() + 5 * SLOT_WIDTH));
+        assertTrue(model.startFastFling(model.getScrollX() + 100 * SLOT_WIDTH));
+        model.scrollTo(model.getScrollX() + 3 * SLOT_WIDTH, false);
+        TimeObject placeholder = model.getSlots()[0];
+        for (int step = 0; step < 10; step++) {
+            model.scrollTo(model.getScrollX() + 2 * SLOT_WIDTH, false);
+            for (int i = 0; i < model.getSlotCount(); i++) {
+                if (i != model.getCenterIndex()) {
+                    assertSame(placeholder, model.getSlots()[i]);
+                }
+            }
+        }
+        assertTimeAt(start + 23 * HOUR);
+
+        model.finishFastFling();
+        assertFalse(model.isFastFling());
+        assertTimeAt(start + 23 * HOUR);
+        assertConsecutive();
+    }
+
+    @Test
+    public void bindCurrentTimeUsesZoneOfBoundaries() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+            timeBoundaries.setHours(8, 11);
+            // 12:30 UTC is after the hours in UTC, but within them in New York
+            long bound = model.bindCurrentTime();
+            assertTrue(bound < start);
+            assertEquals(11, CalendarEngine.forZone(timeBoundaries.timezone).getHourOfDay(bound));
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    /**
+     * Asserts that the model shows the given time at the center, within one pixel
+     */
+    private void assertTimeAt(long time) {
+        assertEquals((double) time, (double) model.updateCurrentTime(), PIXEL);
+        assertTrue(model.getCenterTimeObject().getStartTime() <= time);
+        assertTrue(model.getCenterTimeObject().getEndTime() >= time);
+    }
+
+    /**
+     * Asserts that the slots show consecutive hours, as a fresh labeling of the center would
+     */
+    private void assertConsecutive() {
+        TimeObject[] slots = model.getSlots();
+        for (int i = 1; i < slots.length; i++) {
+            assertEquals(slots[i - 1].getDisplayTime() + HOUR, slots[i].getDisplayTime());
+            assertEquals(slots[i - 1].getEndTime() + 1, slots[i].getStartTime());
+        }
+    }
+
+    private static class RecordingListener implements SliderModel.Listener {
+
+        int relabels;
+
+        int moves;
+
+        int lastMove;
+
+        int limits;
+
+        @Override
+        public void onSlotsChanged() {
+            relabels++;
+        }
+
+        @Override
+        public void onSlotsMoved(int steps) {
+            moves++;
+            lastMove = steps;
+        }
+
+        @Override
+        public void onScrollChanged(int viewScrollX) {
+        }
+
+        @Override
+        public void onLimitReached() {
+            limits++;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mschwartz.dateslider;
+
+import com.mschwartz.dateslider.labeler.MinuteTimeLabeler;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests when {@link TimeBoundaries#snapshot()} creates a new snapshot, that snapshots do not
+ * change with the timezone they were created from and that labelers follow the snapshot.
+ */
+public class TimeBoundariesTest {
+
+    @Test
+    public void snapshotIsKeptWhileValuesAreUnchanged() {
+        TimeBoundaries timeBoundaries = new TimeBoundaries();
+        TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+        timeBoundaries.setTimezone(zone);
+        TimeBoundaries.Snapshot snapshot = timeBoundaries.snapshot();
+        assertSame(snapshot, timeBoundaries.snapshot());
+
+        timeBoundaries.setTimezone(zone);
+        timeBoundaries.setMinuteInterval(timeBoundaries.minuteInterval);
+        timeBoundaries.setHours(timeBoundaries.startHour, timeBoundaries.endHour);
+        assertSame(snapshot, timeBoundaries.snapshot());
+
+        timeBoundaries.setMinuteInterval(15);
+        assertTrue(timeBoundaries.snapshot().version > snapshot.version);
+        assertEquals(15, timeBoundaries.snapshot().minuteInterval);
+    }
+
+    @Test
+    public void changedCreatesNewSnapshot() {
+        TimeBoundaries timeBoundaries = new TimeBoundaries();
+        TimeBoundaries.Snapshot snapshot = timeBoundaries.snapshot();
+
+        timeBoundaries.minTime = 1000;
+        assertSame(snapshot, timeBoundaries.snapshot());
+        timeBoundaries.changed();
+        TimeBoundaries.Snapshot changed = timeBoundaries.snapshot();
+        assertTrue(changed.version > snapshot.version);
+        assertEquals(1000, changed.minTime);
+    }
+
+    @Test
+    public void labelerFollowsSnapshot() {
+        TimeBoundaries timeBoundaries = new TimeBoundaries();
+        timeBoundaries.setTimezone(TimeZone.getTimeZone("UTC"));
+        MinuteTimeLabeler labeler = new MinuteTimeLabeler("%tR", timeBoundaries);
+        long time = 10 * 60 * 60 * 1000 + 7 * 60 * 1000;
+        assertEquals("10:07", labeler.getElem(time).text.toString());
+
+        // a direct assignment is ignored until changed() is called
+        timeBoundaries.minuteInterval = 15;
+        assertEquals("10:07", labeler.getElem(time).text.toString());
+        timeBoundaries.changed();
+        assertEquals("10:00", labeler.getElem(time).text.toString());
+
+        timeBoundaries.setMinuteInterval(30);
+        assertEquals("10:00", labeler.getElem(time).text.toString());
+        timeBoundaries.setMinTime(time + 60 * 60 * 1000);
+        assertTrue(labeler.getElem(time).outOfBounds);
+    }
+
+    @Test
+    public void snapshotKeepsItsZone() {
+        TimeBoundaries timeBoundaries = new TimeBoundaries();
+        timeBoundaries.timezone = TimeZone.getTimeZone("GMT+01:00");
+        TimeBoundaries.Snapshot snapshot = timeBoundaries.snapshot();
+
+        timeBoundaries.timezone.setRawOffset(2 * 60 * 60 * 1000);
+        assertEquals(60 * 60 * 1000, snapshot.timezone.getRawOffset());
+        timeBoundaries.changed();
+        TimeBoundaries.Snapshot changed = timeBoundaries.snapshot();
+        assertTrue(changed.version > snapshot.version);
+        assertEquals(2 * 60 * 60 * 1000, changed.timezone.getRawOffset());
+    }
+
+    @Test
+    public void setCopiesTheZone() {
+        TimeZone zone = TimeZone.getTimeZone("GMT+01:00");
+        TimeBoundaries.Snapshot snapshot = new TimeBoundaries.Snapshot.Builder().setTimezone(zone).build();
+        zone.setRawOffset(0);
+        assertEquals(60 * 60 * 1000, snapshot.timezone.getRawOffset());
+
+        TimeBoundaries timeBoundaries = new TimeBoundaries(snapshot);
+        assertSame(snapshot, timeBoundaries.snapshot());
+        timeBoundaries.timezone.setRawOffset(0);
+        assertEquals(60 * 60 * 1000, snapshot.timezone.getRawOffset());
+        timeBoundaries.changed();
+        assertNotSame(snapshot, timeBoundaries.snapshot());
+    }
+
+    @Test
+    public void deserializedSnapshotGetsNewVersion() throws Exception {
+        TimeBoundaries.Snapshot snapshot = new TimeBoundaries.Snapshot.Builder()
+                .setMinTime(1000)
+                .setMaxTime(2000)
+                .setMinuteInterval(15)
+                .setHours(8, 20)
+                .setTimezone(TimeZone.getTimeZone("Asia/Tokyo"))
+                .build();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(snapshot);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        TimeBoundaries.Snapshot copy = (TimeBoundaries.Snapshot) in.readObject();
+
+        assertTrue(copy.version > snapshot.version);
+        assertEquals(snapshot.minTime, copy.minTime);
+        assertEquals(snapshot.maxTime, copy.maxTime);
+        assertEquals(snapshot.minuteInterval, copy.minuteInterval);
+        assertEquals(snapshot.startHour, copy.startHour);
+        assertEquals(snapshot.endHour, copy.endHour);
+        assertEquals(snapshot.timezone, copy.timezone);
+    }
+}
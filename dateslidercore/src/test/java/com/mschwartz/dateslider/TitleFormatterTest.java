@@ -0,0 +1,121 @@
+package com.mschwartz.dateslider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Compares the titles of {@link TitleFormatter} with the String.format() call it replaces, while
+ * single minutes change as during scrolling and when every field changes at once.
+ */
+public class TitleFormatterTest {
+
+    private static final String TITLE_FORMAT = "%te. %tB %tY %tH:%02d";
+
+    private static final long MINUTE = 60 * 1000;
+
+    private static final long DAY = 24 * 60 * MINUTE;
+
+    private static final Locale[] LOCALES = {
+            Locale.US,
+            Locale.GERMANY,
+            Locale.FRANCE,
+            new Locale("ar", "EG"),
+            new Locale("fa", "IR"),
+            new Locale("hi", "IN"),
+            new Locale("th", "TH"),
+    };
+
+    private static final TimeZone ZONE = TimeZone.getTimeZone("Europe/Berlin");
+
+    private Locale defaultLocale;
+
+    @Before
+    public void setUp() {
+        // TitleFormatter and String.format() both use the default locale
+        defaultLocale = Locale.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    public void consecutiveMinutesMatchStringFormat() {
+        for (Locale locale : LOCALES) {
+            Locale.setDefault(locale);
+            TitleFormatter formatter = new TitleFormatter();
+            Calendar c = Calendar.getInstance(ZONE, locale);
+            // the last day of a month and the day the clocks are set forward
+            long start = startOf(2017, Calendar.MARCH, 25);
+            for (long time = start; time < start + 2 * DAY; time += MINUTE) {
+                c.setTimeInMillis(time);
+                formatter.update(c);
+                assertEquals(locale + " " + time, format(c), formatter.getTitle());
+            }
+        }
+    }
+
+    @Test
+    public void jumpsMatchStringFormat() {
+        for (Locale locale : LOCALES) {
+            Locale.setDefault(locale);
+            TitleFormatter formatter = new TitleFormatter();
+            Calendar c = Calendar.getInstance(ZONE, locale);
+            long time = startOf(1999, Calendar.DECEMBER, 31);
+            for (int i = 0; i < 2000; i++) {
+                // changes every field by a different amount, including the number of digits
+                time += 9 * DAY + 7 * 60 * MINUTE + 13 * MINUTE;
+                c.setTimeInMillis(time);
+                formatter.update(c);
+                assertEquals(locale + " " + time, format(c), formatter.getTitle());
+            }
+        }
+    }
+
+    @Test
+    public void localeChangeFormatsAgain() {
+        TitleFormatter formatter = new TitleFormatter();
+        long time = startOf(2017, Calendar.OCTOBER, 29) + 10 * 60 * MINUTE + 5 * MINUTE;
+        for (Locale locale : LOCALES) {
+            Locale.setDefault(locale);
+            Calendar c = Calendar.getInstance(ZONE, locale);
+            c.setTimeInMillis(time);
+            formatter.update(c);
+            assertEquals(locale.toString(), format(c), formatter.getTitle());
+        }
+    }
+
+    @Test
+    public void unchangedTimeKeepsTitle() {
+        Locale.setDefault(Locale.US);
+        TitleFormatter formatter = new TitleFormatter();
+        Calendar c = Calendar.getInstance(ZONE, Locale.US);
+        c.setTimeInMillis(startOf(2017, Calendar.JUNE, 1));
+        formatter.update(c);
+        String title = formatter.getTitle();
+        c.add(Calendar.SECOND, 30);
+        assertFalse(formatter.update(c));
+        assertSame(title, formatter.getTitle());
+    }
+
+    private static String format(Calendar c) {
+        return String.format(TITLE_FORMAT, c, c, c, c, c.get(Calendar.MINUTE));
+    }
+
+    private static long startOf(int year, int month, int day) {
+        Calendar c = Calendar.getInstance(ZONE, Locale.US);
+        c.clear();
+        c.set(year, month, day);
+        return c.getTimeInMillis();
+    }
+}
@@ -0,0 +1,143 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the closed form of {@link CalendarEngine#addStepsInWindow} with the iteration it
+ * replaces, on ordinary days, on the DST days of the zone and for large step counts.
+ */
+@RunWith(Parameterized.class)
+public class AddStepsInWindowTest {
+
+    private static final long MINUTE = CalendarEngine.MINUTE;
+
+    private static final long HOUR = CalendarEngine.HOUR;
+
+    private static final long DAY = CalendarEngine.DAY;
+
+    private static final String[] ZONES = {"UTC", "Europe/Berlin", "America/Sao_Paulo", "Australia/Lord_Howe"};
+
+    /**
+     * startHour, endHour and minuteInterval of the windows
+     */
+    private static final int[][] WINDOWS = {
+            {8, 20, 15},
+            {6, 18, 30},
+            {1, 22, 5},
+            {9, 17, 60},
+            {5, 21, 20},
+    };
+
+    private static final int[] COUNTS = {-97, -25, -2, -1, 1, 2, 25, 97};
+
+    private static final int[] LARGE_COUNTS = {-20000, -3000, -500, 500, 3000, 20000};
+
+    @Parameters(name = "{0} {1}-{2} every {3} minutes, hours {4}")
+    public static Collection<Object[]> data() {
+        List<Object[]> data = new ArrayList<Object[]>();
+        for (String zone : ZONES) {
+            for (int[] window : WINDOWS) {
+                data.add(new Object[]{zone, window[0], window[1], window[2], false});
+                data.add(new Object[]{zone, window[0], window[1], window[2], true});
+            }
+        }
+        return data;
+    }
+
+    private final TimeZone zone;
+
+    private final TimeBoundaries timeBoundaries = new TimeBoundaries();
+
+    private final long step;
+
+    private final CalendarEngine engine;
+
+    public AddStepsInWindowTest(String zoneId, int startHour, int endHour, int minuteInterval, boolean hours) {
+        zone = TimeZone.getTimeZone(zoneId);
+        timeBoundaries.timezone = zone;
+        timeBoundaries.startHour = startHour;
+        timeBoundaries.endHour = endHour;
+        timeBoundaries.minuteInterval = minuteInterval;
+        step = hours ? HOUR : minuteInterval * MINUTE;
+        engine = CalendarEngine.forZone(zone, Locale.US);
+    }
+
+    @Test
+    public void closedFormMatchesIteration() {
+        int applied = 0;
+        for (long day : days()) {
+            for (long time = engine.withTimeOfDay(day, timeBoundaries.startHour, 0, 0, 0);
+                 engine.getHourOfDay(time) <= timeBoundaries.endHour && time < day + DAY; time += step) {
+                for (int count : COUNTS) {
+                    applied += check(time, count);
+                }
+                // a time which is not on a slot
+                applied += check(time + 7 * MINUTE, 1);
+            }
+        }
+        assertTrue("the closed form was never applied", applied > 0);
+    }
+
+    @Test
+    public void closedFormMatchesIterationForLargeCounts() {
+        int applied = 0;
+        for (long day : days()) {
+            long time = engine.withTimeOfDay(day, timeBoundaries.startHour + 1, 0, 0, 0);
+            for (int count : LARGE_COUNTS) {
+                applied += check(time, count);
+            }
+        }
+        assertTrue("the closed form was never applied", applied > 0);
+    }
+
+    /**
+     * @return 1 if the closed form was applied, 0 if it returned NO_RESULT
+     */
+    private int check(long time, int count) {
+        long result = engine.addStepsInWindow(timeBoundaries, time, count, step);
+        if (result == CalendarEngine.NO_RESULT) {
+            return 0;
+        }
+        long expected = engine.addStepsIteratively(timeBoundaries, time, count, step);
+        assertEquals(Util.format(time) + " " + count, Util.format(expected), Util.format(result));
+        assertEquals(expected, result);
+        return 1;
+    }
+
+    /**
+     * @return noon of an ordinary day and of the days around every DST change of the zone in 2017
+     */
+    private List<Long> days() {
+        List<Long> days = new ArrayList<Long>();
+        Calendar c = Calendar.getInstance(zone, Locale.US);
+        c.clear();
+        c.set(2017, Calendar.JANUARY, 15, 12, 0, 0);
+        days.add(c.getTimeInMillis());
+        c.set(2017, Calendar.JANUARY, 1, 12, 0, 0);
+        while (c.get(Calendar.YEAR) == 2017) {
+            long noon = c.getTimeInMillis();
+            if (zone.getOffset(noon - DAY) != zone.getOffset(noon + DAY)) {
+                days.add(noon - DAY);
+                days.add(noon);
+                days.add(noon + DAY);
+            }
+            c.add(Calendar.DATE, 1);
+        }
+        return days;
+    }
+}
@@ -0,0 +1,145 @@
+package com.mschwartz.dateslider.labeler;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests which engine {@link CalendarEngine#forZone(TimeZone, Locale)} returns and that the
+ * engine follows the timezone and locale it was created for.
+ */
+public class CalendarEngineTest {
+
+    private static final Locale THAI = new Locale("th", "TH");
+
+    @Test
+    public void equalZonesShareEngine() {
+        TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+        TimeZone other = TimeZone.getTimeZone("Europe/Berlin");
+        assertNotSame(zone, other);
+        assertSame(CalendarEngine.forZone(zone, Locale.US), CalendarEngine.forZone(other, Locale.US));
+    }
+
+    @Test
+    public void sameInstancesSkipRuleComparison() {
+        CountingZone zone = new CountingZone();
+        CalendarEngine engine = CalendarEngine.forZone(zone, Locale.US);
+        CountingZone.equalsCalls = 0;
+        for (int i = 0; i < 10; i++) {
+            assertSame(engine, CalendarEngine.forZone(zone, Locale.US));
+        }
+        assertEquals(0, CountingZone.equalsCalls);
+    }
+
+    @Test
+    public void alternatingZonesKeepEngines() {
+        TimeZone berlin = TimeZone.getTimeZone("Europe/Berlin");
+        TimeZone tokyo = TimeZone.getTimeZone("Asia/Tokyo");
+        CalendarEngine first = CalendarEngine.forZone(berlin, Locale.US);
+        CalendarEngine second = CalendarEngine.forZone(tokyo, Locale.US);
+        assertNotSame(first, second);
+        assertSame(first, CalendarEngine.forZone(berlin, Locale.US));
+        assertSame(second, CalendarEngine.forZone(tokyo, Locale.US));
+    }
+
+    @Test
+    public void changedZoneGetsNewEngine() {
+        TimeZone zone = TimeZone.getTimeZone("GMT+01:00");
+        CalendarEngine engine = CalendarEngine.forZone(zone, Locale.US);
+        assertEquals(CalendarEngine.HOUR, engine.getOffset(0));
+
+        zone.setRawOffset(2 * (int) CalendarEngine.HOUR);
+        CalendarEngine changed = CalendarEngine.forZone(zone, Locale.US);
+        assertNotSame(engine, changed);
+        assertEquals(2 * CalendarEngine.HOUR, changed.getOffset(0));
+        // the first engine keeps its own copy of the zone
+        assertEquals(CalendarEngine.HOUR, engine.getOffset(0));
+    }
+
+    @Test
+    public void renamedZoneGetsNewEngine() {
+        TimeZone zone = new SimpleTimeZone(0, "First");
+        CalendarEngine engine = CalendarEngine.forZone(zone, Locale.US);
+        zone.setID("Second");
+        assertNotSame(engine, CalendarEngine.forZone(zone, Locale.US));
+    }
+
+    @Test
+    public void localesGetOwnEngines() {
+        TimeZone zone = TimeZone.getTimeZone("UTC");
+        CalendarEngine us = CalendarEngine.forZone(zone, Locale.US);
+        CalendarEngine germany = CalendarEngine.forZone(zone, Locale.GERMANY);
+        assertNotSame(us, germany);
+        assertEquals(Locale.US, us.getLocale());
+        assertEquals(Locale.GERMANY, germany.getLocale());
+    }
+
+    @Test
+    public void weekOfYearFollowsLocale() {
+        TimeZone zone = TimeZone.getTimeZone("UTC");
+        for (Locale locale : new Locale[]{Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("ar", "EG")}) {
+            CalendarEngine engine = CalendarEngine.forZone(zone, locale);
+            Calendar c = Calendar.getInstance(zone, locale);
+            c.clear();
+            c.set(2016, Calendar.DECEMBER, 25);
+            for (int i = 0; i < 21; i++) {
+                long time = c.getTimeInMillis();
+                assertEquals(locale + " " + Util.format(time), c.get(Calendar.WEEK_OF_YEAR), engine.getWeekOfYear(time));
+                c.add(Calendar.DATE, 1);
+            }
+        }
+    }
+
+    @Test
+    public void defaultLocaleSelectsEngine() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            TimeZone zone = TimeZone.getTimeZone("UTC");
+            Locale.setDefault(Locale.US);
+            assertSame(CalendarEngine.forZone(zone, Locale.US), CalendarEngine.forZone(zone));
+            Locale.setDefault(Locale.GERMANY);
+            assertSame(CalendarEngine.forZone(zone, Locale.GERMANY), CalendarEngine.forZone(zone));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    public void calendarSystemFollowsLocale() {
+        TimeZone zone = TimeZone.getTimeZone("UTC");
+        assertTrue(CalendarEngine.forZone(zone, Locale.US).isGregorian());
+        assertFalse(CalendarEngine.forZone(zone, THAI).isGregorian());
+    }
+
+    /**
+     * Counts the comparisons of the rules of all instances, including the copy of the engine
+     */
+    private static class CountingZone extends SimpleTimeZone {
+
+        static int equalsCalls;
+
+        CountingZone() {
+            super(0, "Counting");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            equalsCalls++;
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return super.hashCode();
+        }
+    }
+}
@@ -3,26 +3,20 @@ package com.mschwartz.dateslider.labeler;
 import com.mschwartz.dateslider.TimeBoundaries;
 import com.mschwartz.dateslider.TimeObject;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 
 /**
- * A bunch of static helpers for manipulating dates and times. There are two
- * types of methods -- add*() methods that add a number of units to a time
- * and return the result as a Calendar, and get*() objects that take a
- * Calendar object and a format string and produce the appropriate TimeObject.
+ * The Calendar based implementation of {@link Util} as it was before the calculations were moved
+ * to {@link CalendarEngine}. The tests use it as the reference the engine has to agree with.
  */
-public class Util {
+class CalendarUtil {
 
-    private static String TAG = "Util";
-
-
-    public static TimeObject addYears(long time, int years, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject addYears(long time, int years, String formatString, TimeBoundaries timeBoundaries) {
         Calendar c = add(time, years, Calendar.YEAR, timeBoundaries);
         return getYear(c, formatString, timeBoundaries);
     }
 
-    public static TimeObject addMonths(long time, int months, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject addMonths(long time, int months, String formatString, TimeBoundaries timeBoundaries) {
         Calendar c = Calendar.getInstance();
         c.setTimeZone(timeBoundaries.timezone);
         c.setTimeInMillis(time);
@@ -41,17 +35,17 @@ public class Util {
         return getMonth(c, formatString, timeBoundaries);
     }
 
-    public static TimeObject addWeeks(long time, int days, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject addWeeks(long time, int days, String formatString, TimeBoundaries timeBoundaries) {
         Calendar c = add(time, days, Calendar.WEEK_OF_YEAR, timeBoundaries);
         return getWeek(c, formatString, timeBoundaries);
     }
 
-    public static TimeObject addDays(long time, int days, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject addDays(long time, int days, String formatString, TimeBoundaries timeBoundaries) {
         Calendar c = add(time, days, Calendar.DAY_OF_MONTH, timeBoundaries);
         return getDay(c, formatString, timeBoundaries);
     }
 
-    public static TimeObject addHours(long time, int hours, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject addHours(long time, int hours, String formatString, TimeBoundaries timeBoundaries) {
         int incdec = 1;
         if (hours < 0)
             incdec = -1;
@@ -80,7 +74,7 @@ public class Util {
         return getHour(c, formatString, timeBoundaries);
     }
 
-    public static TimeObject addMinutes(long time, int minutes, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject addMinutes(long time, int minutes, String formatString, TimeBoundaries timeBoundaries) {
         int incdec = 1;
         if (minutes < 0)
             incdec = -1;
@@ -108,7 +102,7 @@ public class Util {
         return getMinute(c, formatString, timeBoundaries);
     }
 
-    public static void setOob(TimeBoundaries timeBoundaries, TimeObject timeObject, boolean checkHours) {
+    static void setOob(TimeBoundaries timeBoundaries, TimeObject timeObject, boolean checkHours) {
         boolean oob = false;
         boolean oobLeft = false;
         boolean oobRight = false;
@@ -143,7 +137,7 @@ public class Util {
         timeObject.setOob(oob, oobLeft, oobRight);
     }
 
-    public static TimeObject getYear(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject getYear(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
 
         c = alignMinuteInterval(timeBoundaries, c);
 
@@ -167,7 +161,7 @@ public class Util {
         return timeObject;
     }
 
-    public static TimeObject getMonth(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject getMonth(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
 
         c = alignMinuteInterval(timeBoundaries, c);
 
@@ -208,7 +202,7 @@ public class Util {
         return timeObject;
     }
 
-    public static TimeObject getWeek(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject getWeek(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
 
         c = alignMinuteInterval(timeBoundaries, c);
 
@@ -236,7 +230,7 @@ public class Util {
         return timeObject;
     }
 
-    public static TimeObject getDay(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject getDay(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
 
         c = alignMinuteInterval(timeBoundaries, c);
 
@@ -275,7 +269,7 @@ public class Util {
         return timeObject;
     }
 
-    public static TimeObject getHour(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject getHour(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
 
         c = alignMinuteInterval(timeBoundaries, c);
 
@@ -309,7 +303,7 @@ public class Util {
         return timeObject;
     }
 
-    public static TimeObject getMinute(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
+    static TimeObject getMinute(Calendar c, String formatString, TimeBoundaries timeBoundaries) {
 
         c = alignMinuteInterval(timeBoundaries, c);
         long displayTime = c.getTimeInMillis();
@@ -338,7 +332,7 @@ public class Util {
         return c;
     }
 
-    public static Calendar minStartTime(TimeBoundaries timeBoundaries, Calendar calendar) {
+    static Calendar minStartTime(TimeBoundaries timeBoundaries, Calendar calendar) {
         if (timeBoundaries.startHour != -1 && calendar.get(Calendar.HOUR_OF_DAY) < timeBoundaries.startHour) { // - timeBoundaries.minuteInterval * 30 * 1000) {
             calendar.set(Calendar.HOUR_OF_DAY, timeBoundaries.startHour);
             calendar.set(Calendar.MINUTE, 0);
@@ -348,7 +342,7 @@ public class Util {
         return calendar;
     }
 
-    public static Calendar maxEndTime(TimeBoundaries timeBoundaries, Calendar calendar) {
+    static Calendar maxEndTime(TimeBoundaries timeBoundaries, Calendar calendar) {
         if (timeBoundaries.endHour != -1) {
 
             Calendar reference = createReference(timeBoundaries, calendar);
@@ -358,7 +352,7 @@ public class Util {
         return calendar;
     }
 
-    protected static Calendar createReference(TimeBoundaries timeBoundaries, Calendar calendar) {
+    static Calendar createReference(TimeBoundaries timeBoundaries, Calendar calendar) {
         Calendar reference = Calendar.getInstance();
         reference.setTimeInMillis(calendar.getTimeInMillis());
         reference.set(Calendar.HOUR_OF_DAY, timeBoundaries.endHour);
@@ -369,14 +363,6 @@ public class Util {
         return reference;
     }
 
-    public static long bindToMinMax(TimeBoundaries timeBoundaries, long time) {
-        if (timeBoundaries.minTime != -1 && time < timeBoundaries.minTime)
-            time = timeBoundaries.minTime;
-        if (timeBoundaries.maxTime != -1 && time > timeBoundaries.maxTime)
-            time = timeBoundaries.maxTime;
-        return time;
-    }
-
     /**
      * aligns the given calendar time to the nearest minute interval.
      *
@@ -384,7 +370,7 @@ public class Util {
      * @param calendar
      * @return
      */
-    public static Calendar alignMinuteInterval(TimeBoundaries timeBoundaries, Calendar calendar) {
+    static Calendar alignMinuteInterval(TimeBoundaries timeBoundaries, Calendar calendar) {
         // set the calendar time to the display time
         int secondsOfDay = calendar.get(Calendar.HOUR_OF_DAY) * 60 * 60 + calendar.get(Calendar.MINUTE) * 60 + calendar.get(Calendar.SECOND);    // 0-3599
         int nextBoundary = secondsOfDay / timeBoundaries.minuteInterval / 60 * timeBoundaries.minuteInterval * 60; // e.g. 3300
@@ -397,11 +383,4 @@ public class Util {
 
         return calendar;
     }
-
-    public static String format(long time) {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
-        Calendar start = Calendar.getInstance();
-        start.setTimeInMillis(time);
-        return sdf.format(start.getTime());
-    }
 }
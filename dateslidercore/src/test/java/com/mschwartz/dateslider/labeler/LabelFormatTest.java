@@ -0,0 +1,149 @@
+package com.mschwartz.dateslider.labeler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares {@link LabelFormat} with String.format() for the patterns of the built-in labelers
+ * and layouts, in locales with other digits and names and on the DST days of several zones.
+ */
+@RunWith(Parameterized.class)
+public class LabelFormatTest {
+
+    private static final long MINUTE = CalendarEngine.MINUTE;
+
+    private static final long HOUR = CalendarEngine.HOUR;
+
+    private static final long DAY = CalendarEngine.DAY;
+
+    /**
+     * The patterns of the labelers in the layouts of the library and the demo app
+     */
+    private static final String[] DATE_PATTERNS = {
+            "%tA", "%tB", "%tH", "%tM", "%tR", "%tY", "%tk",
+            "%tb %tY", "%td %ta", "%tb %td %ta",
+    };
+
+    private static final String WEEK_PATTERN = "week %d";
+
+    private static final String[] ZONES = {"UTC", "Europe/Berlin", "America/Sao_Paulo", "Asia/Tehran", "Australia/Lord_Howe"};
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                {Locale.US},
+                {Locale.GERMANY},
+                {Locale.FRANCE},
+                {new Locale("ar", "EG")},
+                {new Locale("fa", "IR")},
+                {new Locale("hi", "IN")},
+                {new Locale("th", "TH")},
+        });
+    }
+
+    private final Locale locale;
+
+    private Locale defaultLocale;
+
+    public LabelFormatTest(Locale locale) {
+        this.locale = locale;
+    }
+
+    @Before
+    public void setUp() {
+        // LabelFormat and String.format() both use the default locale
+        defaultLocale = Locale.getDefault();
+        Locale.setDefault(locale);
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    public void everyDayMatchesStringFormat() {
+        for (String zoneId : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            Calendar c = Calendar.getInstance(zone, Locale.US);
+            c.clear();
+            c.set(2017, Calendar.JANUARY, 1, 0, 0, 0);
+            long start = c.getTimeInMillis();
+            for (long day = start; day < start + 366 * DAY; day += DAY) {
+                for (long time : new long[]{day, day + 90 * MINUTE, day + 12 * HOUR + 7 * MINUTE, day + DAY - MINUTE}) {
+                    assertPatternsMatch(zone, time);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void dstDaysMatchStringFormat() {
+        for (String zoneId : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            for (long day : dstDays(zone)) {
+                for (long time = day - DAY; time < day + DAY; time += 15 * MINUTE) {
+                    assertPatternsMatch(zone, time);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void weekMatchesStringFormat() {
+        LabelFormat labelFormat = LabelFormat.of(WEEK_PATTERN);
+        for (int week = -2; week <= 60; week++) {
+            assertEquals(String.valueOf(week), String.format(WEEK_PATTERN, week), labelFormat.format(week));
+        }
+    }
+
+    private void assertPatternsMatch(TimeZone zone, long time) {
+        CalendarEngine engine = CalendarEngine.forZone(zone, locale);
+        // a buddhist calendar in thai, as CalendarEngine uses for it
+        Calendar c = Calendar.getInstance(zone, locale);
+        c.setTimeInMillis(time);
+        for (String pattern : DATE_PATTERNS) {
+            String at = zone.getID() + " " + Util.format(time) + " " + pattern;
+            LabelFormat labelFormat = LabelFormat.of(pattern);
+            assertEquals(at, String.format(pattern, c, c, c), labelFormat.format(engine, time));
+            // the parts are the conversions separated by the spaces of the pattern
+            String[] partPatterns = pattern.split(" ");
+            assertEquals(at, partPatterns.length, labelFormat.getPartCount());
+            for (int i = 0; i < partPatterns.length; i++) {
+                assertEquals(at + " part " + i, String.format(partPatterns[i], c), labelFormat.formatPart(i, engine, time));
+            }
+        }
+    }
+
+    /**
+     * @return noon of the days of 2017 on which the offset of the zone changes
+     */
+    private List<Long> dstDays(TimeZone zone) {
+        List<Long> days = new ArrayList<Long>();
+        Calendar c = Calendar.getInstance(zone, Locale.US);
+        c.clear();
+        c.set(2017, Calendar.JANUARY, 1, 12, 0, 0);
+        while (c.get(Calendar.YEAR) == 2017) {
+            long noon = c.getTimeInMillis();
+            if (zone.getOffset(noon - DAY / 2) != zone.getOffset(noon + DAY / 2)) {
+                days.add(noon);
+            }
+            c.add(Calendar.DATE, 1);
+        }
+        return days;
+    }
+}
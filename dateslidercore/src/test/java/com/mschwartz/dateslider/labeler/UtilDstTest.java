@@ -0,0 +1,193 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.TimeObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the add*() and get*() methods of {@link Util} with the Calendar based
+ * {@link CalendarUtil} around DST changes. The zones change their clocks at midnight, so the
+ * start of the day does not exist on the day the clocks are set forward and exists twice on the
+ * day they are set back.
+ */
+@RunWith(Parameterized.class)
+public class UtilDstTest {
+
+    private static final long MINUTE = CalendarEngine.MINUTE;
+
+    private static final long HOUR = CalendarEngine.HOUR;
+
+    private static final long DAY = CalendarEngine.DAY;
+
+    private static final int[] COUNTS = {-25, -2, -1, 1, 2, 25};
+
+    @Parameters(name = "{0} {1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][]{
+                // clocks set forward at midnight
+                {"America/Sao_Paulo", "2017-10-13"},
+                {"America/Havana", "2017-03-11"},
+                {"America/Havana", "2012-03-31"},
+                {"Asia/Tehran", "2017-03-21"},
+                // clocks set back at midnight
+                {"America/Sao_Paulo", "2018-02-16"},
+                {"America/Havana", "2017-11-04"},
+                {"Asia/Tehran", "2017-09-20"},
+                // clocks changed during the day
+                {"Europe/Berlin", "2017-03-25"},
+                {"Europe/Berlin", "2017-10-28"},
+        });
+    }
+
+    private final TimeZone zone;
+
+    private final long start;
+
+    private TimeZone defaultZone;
+
+    private Locale defaultLocale;
+
+    public UtilDstTest(String zoneId, String date) {
+        zone = TimeZone.getTimeZone(zoneId);
+        String[] parts = date.split("-");
+        Calendar c = Calendar.getInstance(zone);
+        c.clear();
+        c.set(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]) - 1, Integer.parseInt(parts[2]), 12, 0, 0);
+        start = c.getTimeInMillis();
+    }
+
+    @Before
+    public void setUp() {
+        // the reference creates some calendars in the default zone and locale
+        defaultZone = TimeZone.getDefault();
+        defaultLocale = Locale.getDefault();
+        TimeZone.setDefault(zone);
+        Locale.setDefault(Locale.US);
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    public void addAndGetMatchCalendar() {
+        for (TimeBoundaries timeBoundaries : boundaries()) {
+            for (long time = start - 2 * DAY; time <= start + 2 * DAY; time += 10 * MINUTE) {
+                assertUnitsMatch(timeBoundaries, time);
+            }
+        }
+    }
+
+    @Test
+    public void dayRowAdvances() {
+        TimeBoundaries timeBoundaries = new TimeBoundaries();
+        timeBoundaries.timezone = zone;
+        TimeObject day = Util.getDay(start - 2 * DAY, "%td %ta", timeBoundaries);
+        for (int i = 0; i < 4; i++) {
+            // the rows step from the display time of their elements
+            TimeObject next = Util.addDays(day.getDisplayTime(), 1, "%td %ta", timeBoundaries);
+            assertNotEquals(day.text.toString(), next.text.toString());
+            assertTrue(next.getDisplayTime() > day.getDisplayTime());
+            day = next;
+        }
+    }
+
+    @Test
+    public void monthRowLabelsMonthOfTime() {
+        TimeBoundaries timeBoundaries = new TimeBoundaries();
+        timeBoundaries.timezone = zone;
+        Calendar c = Calendar.getInstance(zone);
+        c.setTimeInMillis(start);
+        String expected = String.format("%tb %tY", c, c);
+        assertEquals(expected, Util.getMonth(start, "%tb %tY", timeBoundaries).text.toString());
+    }
+
+    @Test
+    public void timeObjectsEndAfterStart() {
+        // with startHour and endHour, the end of a time after the window is truncated to the
+        // window, so only the boundaries without a window are checked
+        for (TimeBoundaries timeBoundaries : Arrays.copyOf(boundaries(), 2)) {
+            for (long time = start - 2 * DAY; time <= start + 2 * DAY; time += 10 * MINUTE) {
+                assertOrdered(Util.getMinute(time, "%tR", timeBoundaries));
+                assertOrdered(Util.getHour(time, "%tH", timeBoundaries));
+                assertOrdered(Util.getDay(time, "%td %ta", timeBoundaries));
+            }
+        }
+    }
+
+    private void assertUnitsMatch(TimeBoundaries tb, long time) {
+        String at = Util.format(time) + " " + tb.minuteInterval + " " + tb.startHour + "-" + tb.endHour;
+        assertSame(at, CalendarUtil.getYear(calendar(time), "%tY", tb), Util.getYear(time, "%tY", tb));
+        assertSame(at, CalendarUtil.getMonth(calendar(time), "%tb %tY", tb), Util.getMonth(time, "%tb %tY", tb));
+        assertSame(at, CalendarUtil.getWeek(calendar(time), "%d", tb), Util.getWeek(time, "%d", tb));
+        assertSame(at, CalendarUtil.getDay(calendar(time), "%td %ta", tb), Util.getDay(time, "%td %ta", tb));
+        assertSame(at, CalendarUtil.getHour(calendar(time), "%tH", tb), Util.getHour(time, "%tH", tb));
+        assertSame(at, CalendarUtil.getMinute(calendar(time), "%tR", tb), Util.getMinute(time, "%tR", tb));
+        for (int count : COUNTS) {
+            String step = at + " " + count;
+            assertSame(step, CalendarUtil.addYears(time, count, "%tY", tb), Util.addYears(time, count, "%tY", tb));
+            assertSame(step, CalendarUtil.addMonths(time, count, "%tb %tY", tb), Util.addMonths(time, count, "%tb %tY", tb));
+            assertSame(step, CalendarUtil.addWeeks(time, count, "%d", tb), Util.addWeeks(time, count, "%d", tb));
+            assertSame(step, CalendarUtil.addDays(time, count, "%td %ta", tb), Util.addDays(time, count, "%td %ta", tb));
+            assertSame(step, CalendarUtil.addHours(time, count, "%tH", tb), Util.addHours(time, count, "%tH", tb));
+            assertSame(step, CalendarUtil.addMinutes(time, count, "%tR", tb), Util.addMinutes(time, count, "%tR", tb));
+        }
+    }
+
+    private static void assertSame(String message, TimeObject expected, TimeObject actual) {
+        assertEquals(message, expected.text.toString(), actual.text.toString());
+        assertEquals(message, Util.format(expected.getStartTime()), Util.format(actual.getStartTime()));
+        assertEquals(message, Util.format(expected.getEndTime()), Util.format(actual.getEndTime()));
+        assertEquals(message, Util.format(expected.getDisplayTime()), Util.format(actual.getDisplayTime()));
+        assertEquals(message, expected.outOfBounds, actual.outOfBounds);
+        assertEquals(message, expected.oobLeft, actual.oobLeft);
+        assertEquals(message, expected.oobRight, actual.oobRight);
+    }
+
+    private static void assertOrdered(TimeObject timeObject) {
+        assertTrue(timeObject.text + " ends before it starts", timeObject.getEndTime() >= timeObject.getStartTime());
+    }
+
+    private Calendar calendar(long time) {
+        Calendar c = Calendar.getInstance(zone);
+        c.setTimeInMillis(time);
+        return c;
+    }
+
+    private TimeBoundaries[] boundaries() {
+        TimeBoundaries all = new TimeBoundaries();
+        all.timezone = zone;
+
+        TimeBoundaries quarters = new TimeBoundaries();
+        quarters.timezone = zone;
+        quarters.minuteInterval = 15;
+
+        TimeBoundaries window = new TimeBoundaries();
+        window.timezone = zone;
+        window.minuteInterval = 30;
+        window.startHour = 8;
+        window.endHour = 20;
+        window.minTime = start - DAY;
+        window.maxTime = start + DAY + 3 * HOUR;
+
+        return new TimeBoundaries[]{all, quarters, window};
+    }
+}
@@ -0,0 +1,7 @@
+# ProGuard/R8 rules which are applied to the apps using this library.
+
+# Labelers without a registered LabelerFactory are constructed by reflection from the
+# labelerClass name of the layout, so their constructor must survive shrinking.
+-keep class * extends com.mschwartz.dateslider.labeler.TimeLabeler {
+    public <init>(java.lang.String, com.mschwartz.dateslider.TimeBoundaries);
+}
@@ -37,7 +37,7 @@ import android.widget.HorizontalScrollView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
-import com.mschwartz.dateslider.SliderContainer.OnTimeChangeListener;
+import com.mschwartz.dateslider.SliderContainer.OnTimeMillisChangeListener;
 
 import java.util.Calendar;
 import java.util.TimeZone;
@@ -104,6 +104,19 @@ public class DateSlider extends DialogFragment {
 
     private AnimatorSet animators;
 
+    /**
+     * Formats the title and keeps it until the time changes
+     */
+    private TitleFormatter mTitleFormatter;
+
+    /**
+     * The Calendar passed to {@link #setTitle(Calendar)} for every change of the time, reused
+     * as long as the timezone does not change
+     */
+    private Calendar mTitleCalendar;
+
+    private TimeZone mTitleTimeZone;
+
     public static DateSlider newInstance(Bundle args) {
         DateSlider fragment = new DateSlider();
         fragment.setArguments(args);
@@ -152,23 +165,23 @@ public class DateSlider extends DialogFragment {
      */
     protected void parseArguments(Bundle bundle) {
         if (bundle.get(ARG_STARTHOUR) != null)
-            tempTimeBoundaries.startHour = bundle.getInt(ARG_STARTHOUR);
+            tempTimeBoundaries.setHours(bundle.getInt(ARG_STARTHOUR), tempTimeBoundaries.endHour);
         if (bundle.get(ARG_ENDHOUR) != null)
-            tempTimeBoundaries.endHour = bundle.getInt(ARG_ENDHOUR);
+            tempTimeBoundaries.setHours(tempTimeBoundaries.startHour, bundle.getInt(ARG_ENDHOUR));
         if (bundle.get(ARG_INITIALTIME) != null)
             mInitialTime = bundle.getLong(ARG_INITIALTIME);
         if (bundle.get(ARG_LAYOUTID) != null)
             mLayoutID = bundle.getInt(ARG_LAYOUTID);
         if (bundle.get(ARG_MINTIME) != null)
-            tempTimeBoundaries.minTime = bundle.getLong(ARG_MINTIME);
+            tempTimeBoundaries.setMinTime(bundle.getLong(ARG_MINTIME));
         if (bundle.get(ARG_MAXTIME) != null)
-            tempTimeBoundaries.maxTime = bundle.getLong(ARG_MAXTIME);
+            tempTimeBoundaries.setMaxTime(bundle.getLong(ARG_MAXTIME));
         if (bundle.get(ARG_MINUTEINTERVAL) != null)
-            tempTimeBoundaries.minuteInterval = bundle.getInt(ARG_MINUTEINTERVAL);
+            tempTimeBoundaries.setMinuteInterval(bundle.getInt(ARG_MINUTEINTERVAL));
         if (bundle.get(ARG_TITLE) != null)
             title = bundle.getString(ARG_TITLE);
         if (bundle.get(ARG_TIMEZONE) != null)
-            tempTimeBoundaries.timezone = TimeZone.getTimeZone(bundle.getString(ARG_TIMEZONE));
+            tempTimeBoundaries.setTimezone(TimeZone.getTimeZone(bundle.getString(ARG_TIMEZONE)));
     }
 
     /**
@@ -194,7 +207,7 @@ public class DateSlider extends DialogFragment {
      * @return DateSlider
      */
     protected DateSlider setMinTime(long minTime) {
-        tempTimeBoundaries.minTime = minTime;
+        tempTimeBoundaries.setMinTime(minTime);
         if (mContainer != null) {
             mContainer.setMinTime(tempTimeBoundaries.minTime);
         }
@@ -208,7 +221,7 @@ public class DateSlider extends DialogFragment {
      * @return DateSlider
      */
     protected DateSlider setMaxTime(long maxTime) {
-        tempTimeBoundaries.maxTime = maxTime;
+        tempTimeBoundaries.setMaxTime(maxTime);
         if (mContainer != null) {
             mContainer.setMaxTime(tempTimeBoundaries.maxTime);
         }
@@ -226,7 +239,7 @@ public class DateSlider extends DialogFragment {
     protected DateSlider setMinuteInterval(int minuteInterval) {
         assert (minuteInterval >= 1 && minuteInterval <= 120);
         assert ((minuteInterval % 60) == 0);
-        tempTimeBoundaries.minuteInterval = minuteInterval;
+        tempTimeBoundaries.setMinuteInterval(minuteInterval);
         if (mContainer != null) {
             mContainer.setMinuteInterval(minuteInterval);
         }
@@ -265,8 +278,7 @@ public class DateSlider extends DialogFragment {
         assert (startHour == -1 || (startHour >= 0 && startHour <= 23));
         assert (endHour == -1 || (endHour >= 0 && endHour <= 23));
         assert ((startHour == -1 && endHour == -1) || (startHour < endHour));
-        tempTimeBoundaries.startHour = startHour;
-        tempTimeBoundaries.endHour = endHour;
+        tempTimeBoundaries.setHours(startHour, endHour);
         if (mContainer != null) {
             mContainer.setHours(startHour, endHour);
         }
@@ -300,6 +312,8 @@ public class DateSlider extends DialogFragment {
             return null;
         }
         mTitleText = (TextView) rootView.findViewById(R.id.dateSliderTitleText);
+        // the new title view has no text yet
+        mTitleFormatter = new TitleFormatter();
         mContainer = (SliderContainer) rootView.findViewById(R.id.dateSliderContainer);
 
         dateSliderOkButton = (Button) rootView.findViewById(R.id.dateSliderOkButton);
@@ -315,7 +329,8 @@ public class DateSlider extends DialogFragment {
         jumpIncMonthButton = (Button) rootView.findViewById(R.id.incMonth);
         jumpIncYearButton = (Button) rootView.findViewById(R.id.incYear);
 
-        mContainer.setOnTimeChangeListener(onTimeChangeListener);
+        // the title and the listener only depend on the selected slot
+        mContainer.setOnTimeMillisChangeListener(onTimeChangeListener, SliderContainer.DELIVER_ON_SLOT_CHANGE);
         Calendar c = Calendar.getInstance();
         c.setTimeInMillis(mInitialTime);
         mContainer.setTime(c, tempTimeBoundaries);
@@ -538,18 +553,22 @@ public class DateSlider extends DialogFragment {
     }
 
     protected void setTimezone(String timezone) {
-        tempTimeBoundaries.timezone = TimeZone.getTimeZone(timezone);
+        tempTimeBoundaries.setTimezone(TimeZone.getTimeZone(timezone));
         if (mContainer != null)
             mContainer.setTimezone(tempTimeBoundaries.timezone);
     }
 
-    private OnTimeChangeListener onTimeChangeListener = new OnTimeChangeListener() {
+    private OnTimeMillisChangeListener onTimeChangeListener = new OnTimeMillisChangeListener() {
 
-        public void onTimeChange(Calendar time) {
+        public void onTimeChange(long time, TimeZone timezone) {
 
-            if (onDateSetListener != null && dateSliderOkButton == null)
-                onDateSetListener.onDateSet(DateSlider.this, time);
-            setTitle(time);
+            if (onDateSetListener != null && dateSliderOkButton == null) {
+                // the listener may keep the Calendar, so it gets a new one
+                Calendar c = Calendar.getInstance(timezone);
+                c.setTimeInMillis(time);
+                onDateSetListener.onDateSet(DateSlider.this, c);
+            }
+            setTitle(time, timezone);
         }
     };
 
@@ -578,12 +597,26 @@ public class DateSlider extends DialogFragment {
     }
 
     /**
-     * This method sets the title of the dialog
+     * Sets the title of the dialog to the given time by calling {@link #setTitle(Calendar)}, so
+     * subclasses only need to override that one. The Calendar is reused for the next time, an
+     * override which wants to keep it has to copy it.
+     */
+    protected void setTitle(long time, TimeZone timezone) {
+        if (mTitleCalendar == null || mTitleTimeZone != timezone) {
+            mTitleCalendar = Calendar.getInstance(timezone);
+            mTitleTimeZone = timezone;
+        }
+        mTitleCalendar.setTimeInMillis(time);
+        setTitle(mTitleCalendar);
+    }
+
+    /**
+     * This method sets the title of the dialog. Only the parts of the title which have changed
+     * are formatted again, and the TextView is not touched if the title is unchanged.
      */
     protected void setTitle(Calendar time) {
-        if (mTitleText != null) {
-            mTitleText.setText(
-                    String.format("%te. %tB %tY %tH:%02d", time, time, time, time, time.get(Calendar.MINUTE)));
+        if (mTitleText != null && mTitleFormatter.update(time)) {
+            mTitleText.setText(mTitleFormatter.getTitle());
         }
     }
 
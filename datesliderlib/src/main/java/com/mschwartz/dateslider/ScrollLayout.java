@@ -20,6 +20,13 @@ package com.mschwartz.dateslider;
 
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.Gravity;
@@ -28,20 +35,24 @@ import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.widget.LinearLayout;
-import android.widget.Scroller;
-
-import com.mschwartz.dateslider.labeler.Labeler;
-import com.mschwartz.dateslider.labeler.Util;
+import android.widget.OverScroller;
+import android.widget.TextView;
+
+import com.mschwartz.dateslider.labeler.LabelPrefetcher;
+import com.mschwartz.dateslider.labeler.LabelerRegistry;
+import com.mschwartz.dateslider.labeler.TimeAttributeProvider;
+import com.mschwartz.dateslider.labeler.TimeLabeler;
+import com.mschwartz.dateslider.timeview.FixedTimeTextView;
 import com.mschwartz.dateslider.timeview.TimeView;
-
-import java.lang.reflect.Constructor;
-import java.util.Calendar;
+import com.mschwartz.dateslider.timeview.TimeViewFactory;
+import com.mschwartz.dateslider.timeview.TimeViewStyle;
 
 /**
  * This is where most of the magic happens. This is a subclass of LinearLayout
  * that display a collection of TimeViews and handles the scrolling, shuffling
- * the TimeViews around to keep the display up-to-date, and managing the Labelers
- * to populate the TimeViews with the correct data.
+ * the TimeViews around to keep the display up-to-date. The mapping between the
+ * scroll position and the time is done by a {@link SliderModel}, this layout
+ * passes the touch and fling positions to it and renders its slots.
  * <p/>
  * This class is configured via xml attributes that specify the class of the
  * labeler to use to generate views, the format string for the labeler to use
@@ -52,7 +63,34 @@ public class ScrollLayout extends LinearLayout {
 
     private static String TAG = "ScrollLayout";
 
-    private Scroller mScroller;
+    /**
+     * Every child keeps its position, on a scroll step all children are relabeled
+     */
+    public static final int RENDER_MODE_COPY = 0;
+
+    /**
+     * The children are moved to their new position on a scroll step and only the children
+     * which come into view are relabeled. The center view keeps its position.
+     */
+    public static final int RENDER_MODE_RING = 1;
+
+    /**
+     * No children are created, the layout draws the labels of all slots itself. The look is
+     * taken from the views of the labeler if they are TextViews, custom TimeViews are not used.
+     */
+    public static final int RENDER_MODE_CANVAS = 2;
+
+    /**
+     * The text size in dps used in canvas mode if the views of the labeler are no TextViews
+     */
+    private static final int DEFAULT_TEXT_SIZE = 20;
+
+    /**
+     * The fling velocity in slots per second below which a predictive fling labels all slots again
+     */
+    private static final int PREDICTIVE_FLING_SLOTS_PER_SECOND = 25;
+
+    private OverScroller mScroller;
 
     /**
      * Indicates if we are currently tracking touch events that are dragging
@@ -66,30 +104,15 @@ public class ScrollLayout extends LinearLayout {
     private boolean moveMode;
 
     /**
-     * The aggregated width of all of our children
-     */
-    private int childrenWidth;
-
-    /**
-     * The aggregate width of our children is very likely to be wider than the
-     * bounds of our view. Since we keep everything centered, we need to keep
-     * our view scrolled by enough to center our children, rather than
-     * left-aligning them. This variable tracks how much to scroll to achieve this.
+     * Indicates if mScroller is running a fling started by the user
      */
-    private int mInitialOffset;
+    private boolean mFlinging;
 
     private int mLastX;
-    private int mLastScroll;
-    private int mScrollX;
     private VelocityTracker mVelocityTracker;
     private int mMinimumVelocity;
     private int mMaximumVelocity;
 
-    /**
-     * The time that we are currently displaying
-     */
-    private long currentTime = System.currentTimeMillis();
-
     private TimeBoundaries timeBoundaries;
 
     /**
@@ -102,20 +125,101 @@ public class ScrollLayout extends LinearLayout {
      */
     private int objHeight;
 
+    /**
+     * The slots and the scroll position, null until the TimeBoundaries are set
+     */
+    private SliderModel mModel;
 
-    private Labeler mLabeler;
+    /**
+     * The labeler of mModel as creator of our children
+     */
+    private TimeViewFactory mViewFactory;
 
     private OnScrollListener listener;
 
+    private OnSettleListener settleListener;
+
     /**
-     * The centered view. We make sure that we always have an odd number of views.
+     * How the children follow a scroll step, either {@link #RENDER_MODE_COPY} or {@link #RENDER_MODE_RING}
      */
-    private TimeView mCenterView;
+    private int renderMode;
 
     /**
-     * The index of the centered view which is getChilds().size() / 2
+     * The children in the order of the slots of mModel, i.e. in the order they are displayed. In copy
+     * mode this is the order of getChildAt(), in ring mode the children are moved to their slot
+     * with a translation.
      */
-    private int centerIndex;
+    private TimeView[] mSlotViews;
+
+    /**
+     * The index of the child displayed in each slot, used to calculate its translation
+     */
+    private int[] mSlotChildren;
+
+    /**
+     * Temporary copies of mSlotViews and mSlotChildren used while rotating
+     */
+    private TimeView[] mRotateViews;
+
+    private int[] mRotateChildren;
+
+    /**
+     * The paints used in canvas mode for the center slot and all others
+     */
+    private TextPaint mTextPaint;
+
+    private TextPaint mCenterTextPaint;
+
+    /**
+     * The text layouts of the slots in canvas mode and the texts they were created for
+     */
+    private StaticLayout[] mCellLayouts;
+
+    private CharSequence[] mCellLayoutTexts;
+
+    /**
+     * Computes the elements coming into view during a fling in the background, null if
+     * prefetching is disabled
+     */
+    private LabelPrefetcher mPrefetcher;
+
+    /**
+     * The labeler used by mPrefetcher on its thread and the version of the TimeBoundaries it
+     * was created for
+     */
+    private TimeLabeler mPrefetchLabeler;
+
+    /**
+     * Passed to every labeler of this layout, null if the app sets no flags
+     */
+    private TimeAttributeProvider mAttributeProvider;
+
+    /**
+     * The colours and backgrounds of the children, resolved when the first child asks for them
+     */
+    private TimeViewStyle mTimeViewStyle;
+
+    /**
+     * If true, the out of bounds times are shaded by this layout instead of the children
+     */
+    private boolean mStripShading;
+
+    /**
+     * Fills the spans of slots which are completely out of bounds, created with the first shading
+     */
+    private Paint mOobPaint;
+
+    private long mPrefetchVersion;
+
+    /**
+     * If true, long flings only label the center slot while they are fast
+     */
+    private boolean mPredictiveFling;
+
+    /**
+     * If true, the TextViews of the labeler are replaced by FixedTimeTextViews
+     */
+    private boolean mFixedSizeViews;
 
     /**
      * The name of the labeler class
@@ -124,16 +228,20 @@ public class ScrollLayout extends LinearLayout {
 
     private String labelerFormat;
 
-    private int childCount;
-
     private ScrollLayout parent;
 
     private ScrollLayout child;
 
+    /**
+     * Receives the time when this layout has been scrolled, null if the parent and child are
+     * updated directly
+     */
+    private TimeSync timeSync;
+
     public ScrollLayout(Context context, AttributeSet attrs) {
         super(context, attrs);
         this.setWillNotDraw(false);
-        mScroller = new Scroller(context);
+        mScroller = new OverScroller(context);
         setGravity(Gravity.CENTER_VERTICAL);
         setOrientation(HORIZONTAL);
         final ViewConfiguration configuration = ViewConfiguration.get(context);
@@ -165,6 +273,12 @@ public class ScrollLayout extends LinearLayout {
                     (int) (50 * context.getResources().getDisplayMetrics().density));
             objHeight = a.getDimensionPixelSize(R.styleable.ScrollLayout_childHeight,
                     (int) (50 * context.getResources().getDisplayMetrics().density));
+
+            renderMode = a.getInt(R.styleable.ScrollLayout_renderMode, RENDER_MODE_COPY);
+            setPrefetchEnabled(a.getBoolean(R.styleable.ScrollLayout_prefetch, false));
+            mPredictiveFling = a.getBoolean(R.styleable.ScrollLayout_predictiveFling, false);
+            mFixedSizeViews = a.getBoolean(R.styleable.ScrollLayout_fixedSizeViews, false);
+            mStripShading = a.getBoolean(R.styleable.ScrollLayout_stripShading, false);
         }
 
         a.recycle();
@@ -180,68 +294,44 @@ public class ScrollLayout extends LinearLayout {
     public void onSizeChanged(int w, int h, int old_w, int old_h) {
         super.onSizeChanged(w, h, old_w, old_h);
         //Log.i(TAG, "onSizeChanged " + w + ", " + old_w);
-        if (w == old_w && mCenterView != null)
+        if (w == old_w && mSlotViews != null)
             return;
 
         // We need to generate enough children to fill all of our desired space, and
         // it needs to be an odd number of children because we treat the center view
-        // specially. So, first compute how many children we will need.
-        int displayWidth = w;
-        childCount = displayWidth / objWidth;
-        // Make sure to round up
-        if (displayWidth % objWidth != 0) {
-            childCount++;
-        }
-        childCount++;
-        // Now make sure we have an odd number of children, we want to center the view later.
-        if (childCount % 2 == 0) {
-            childCount++;
-        }
-
-        // We have an odd number of children, so childCount / 2 will round down to the
-        // index just before the center in 1-based indexing, meaning that it will be the
-        // center index in 0-based indexing.
-        centerIndex = (childCount / 2);
+        // specially. The model computes how many children we will need.
+        mModel.setSize(w, objWidth);
+        int childCount = mModel.getSlotCount();
+        int centerIndex = mModel.getCenterIndex();
 
         // Make sure we weren't inflated with any views for some odd reason
         removeAllViews();
 
-        // Finally, set our actual children width
-        childrenWidth = childCount * objWidth;
-
-        // Now add all of the child views, making sure to make the center view as such.
-        for (int i = 0; i < childCount; i++) {
-            LayoutParams lp = new LayoutParams(objWidth, objHeight);
-            TimeView ttv = mLabeler.createView(getContext(), i == centerIndex);
-            addView((View) ttv, lp);
+        mSlotViews = new TimeView[childCount];
+        mSlotChildren = new int[childCount];
+        mRotateViews = new TimeView[childCount];
+        mRotateChildren = new int[childCount];
+
+        if (renderMode == RENDER_MODE_CANVAS) {
+            // we draw the slots ourselves
+            mCellLayouts = new StaticLayout[childCount];
+            mCellLayoutTexts = new CharSequence[childCount];
+            if (mTextPaint == null) {
+                setupCanvasStyle();
+            }
+        } else {
+            // Now add all of the child views, making sure to make the center view as such.
+            for (int i = 0; i < childCount; i++) {
+                LayoutParams lp = new LayoutParams(objWidth, objHeight);
+                TimeView ttv = createView(i == centerIndex);
+                addView((View) ttv, lp);
+                mSlotViews[i] = ttv;
+                mSlotChildren[i] = i;
+            }
         }
 
-        // Now we need to set the times on all of the TimeViews. We start with the center
-        // view, work our way to the end, then starting from the center again, work our
-        // way back to the beginning.
-        mCenterView = (TimeView) getChildAt(centerIndex);
-
-        labelViews();
-
-        // In order to keep our children centered, the initial offset has to
-        // be half the difference between our children's width and our width.
-        mInitialOffset = (childrenWidth - displayWidth) / 2;
-        // Now scroll to that offset
-        super.scrollTo(mInitialOffset, 0);
-        mScrollX = mInitialOffset;
-        mLastScroll = mInitialOffset;
-
-        setScroll();
-    }
-
-    private void setScroll() {
-        double diff = mCenterView.getTimeObject().getEndTime() - mCenterView.getTimeObject().getStartTime();
-        // current time is now in the centerview
-        double curr_per = calculateF(getScrollX());
-        double goal_per = (currentTime - mCenterView.getTimeObject().getStartTime()) / diff;
-        int shift = (int) Math.round((curr_per - goal_per) * objWidth);
-        mScrollX -= shift;
-        reScrollToWithoutMove(mScrollX, 0);
+        // Now we need to set the times on all of the TimeViews and center them.
+        mModel.resetScroll();
     }
 
     public void setChild(ScrollLayout child) {
@@ -259,43 +349,155 @@ public class ScrollLayout extends LinearLayout {
     public void setTimeBoundaries(TimeBoundaries timeBoundaries) {
         this.timeBoundaries = timeBoundaries;
 
-        try {
-            Class<?> clazz = Class.forName(className);
-            Constructor<?> ctor = clazz.getConstructor(String.class, TimeBoundaries.class);
-            mLabeler = (Labeler) ctor.newInstance(labelerFormat, timeBoundaries);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to construct labeler " + className, e);
+        TimeLabeler labeler = LabelerRegistry.create(className, labelerFormat, timeBoundaries);
+        if (!(labeler instanceof TimeViewFactory)) {
+            throw new RuntimeException("Labeler " + className + " must implement " + TimeViewFactory.class.getName());
+        }
+        labeler.setAttributeProvider(mAttributeProvider);
+        SliderModel old = mModel;
+        mModel = new SliderModel(labeler);
+        mModel.setListener(mModelListener);
+        mModel.setPrefetcher(mPrefetcher);
+        mViewFactory = (TimeViewFactory) labeler;
+        if (old != null) {
+            mModel.setTime(old.getCurrentTime());
+            if (old.hasSlots()) {
+                // keep the children, they fit the slots of the new model
+                mModel.setSize(getWidth(), objWidth);
+                mModel.resetScroll();
+            }
         }
     }
 
-    public void setTimeByChild(long time) {
-//        Log.i(TAG, "setTimeByChild " + Util.format(time) + " for " + mLabeler.getClass().getCanonicalName() +
-//                " and " + mCenterView.getTimeObject() );
-        if (mCenterView.getTimeObject().startTime <= time && mCenterView.getTimeObject().endTime >= time) {
-            currentTime = time;
-            // the time has not changed so much, we still show the correct item
-            double diff = mCenterView.getTimeObject().getEndTime() - mCenterView.getTimeObject().getStartTime();
-            // current time is now in the centerview
-            double curr_per = calculateF(getScrollX());
-            double goal_per = (currentTime - mCenterView.getTimeObject().getStartTime()) / diff;
-            int shift = (int) Math.floor((curr_per - goal_per) * objWidth);
-            mScrollX -= shift;
-//            Log.i(TAG, "  setTimeByChild1 " + shift + ", curr_per " + curr_per + ", goal_per " + goal_per + ", diff " + diff);
-            reScrollToWithoutMove(mScrollX, 0);
+    /**
+     * @return the slots and the scroll position rendered by this layout, null until the
+     * TimeBoundaries are set
+     */
+    public SliderModel getModel() {
+        return mModel;
+    }
+
+    /**
+     * Enables or disables the computation of the labels of a fling on a background thread. The
+     * labeler must be thread safe, the labelers of this library are.
+     */
+    public void setPrefetchEnabled(boolean enabled) {
+        if (enabled && mPrefetcher == null) {
+            mPrefetcher = new LabelPrefetcher();
+        } else if (!enabled && mPrefetcher != null) {
+            mPrefetcher.cancel();
+            mPrefetcher = null;
+            mPrefetchLabeler = null;
+        }
+        if (mModel != null) {
+            mModel.setPrefetcher(mPrefetcher);
+        }
+    }
+
+    public boolean isPrefetchEnabled() {
+        return mPrefetcher != null;
+    }
+
+    /**
+     * Enables or disables predictive flings: while a long fling is fast, only the center slot is
+     * labeled and all other slots show a placeholder. The slots around the landing position are
+     * labeled when the fling starts and shown once it slows down.
+     */
+    public void setPredictiveFling(boolean enabled) {
+        mPredictiveFling = enabled;
+        if (!enabled && mModel != null) {
+            mModel.finishFastFling();
+        }
+    }
+
+    public boolean isPredictiveFling() {
+        return mPredictiveFling;
+    }
+
+    /**
+     * Enables or disables views which never request a layout pass when they are relabeled.
+     * The labels of a labeler creating TextViews are then drawn by FixedTimeTextViews with the
+     * text appearance of the TextViews, other TimeViews are used as they are. The setting is
+     * applied when the children are created, i.e. when the size of the layout changes.
+     */
+    public void setFixedSizeViews(boolean enabled) {
+        mFixedSizeViews = enabled;
+    }
+
+    public boolean isFixedSizeViews() {
+        return mFixedSizeViews;
+    }
+
+    /**
+     * Sets the provider of the flags of the app on the TimeObjects of this layout, e.g. to mark
+     * holidays. The slots are labeled again with the new flags. If prefetching is enabled the
+     * provider is also called on the background thread.
+     *
+     * @param provider the provider, null to set no flags
+     */
+    public void setAttributeProvider(TimeAttributeProvider provider) {
+        mAttributeProvider = provider;
+        // the prefetched elements carry the flags of the old provider
+        mPrefetchLabeler = null;
+        if (mPrefetcher != null) {
+            mPrefetcher.cancel();
+        }
+        if (mModel != null) {
+            // clears the cache of the labeler, the labeler and the children are kept
+            mModel.getLabeler().setAttributeProvider(provider);
+            mModel.setTime(mModel.getCurrentTime());
+        }
+    }
+
+    public TimeAttributeProvider getAttributeProvider() {
+        return mAttributeProvider;
+    }
+
+    /**
+     * @return the colours and out of bounds backgrounds shared by the children of this layout
+     */
+    public TimeViewStyle getTimeViewStyle() {
+        if (mTimeViewStyle == null) {
+            mTimeViewStyle = new TimeViewStyle(getContext());
+            mTimeViewStyle.setChildBackgrounds(!mStripShading);
+        }
+        return mTimeViewStyle;
+    }
+
+    /**
+     * Enables or disables the shading of the out of bounds times by this layout. If enabled, the
+     * shading of all slots is drawn in one pass beneath the labels and the children keep a static
+     * background, so relabeling a child never swaps its background.
+     */
+    public void setStripShading(boolean enabled) {
+        if (enabled == mStripShading) {
             return;
-        } else {
-            currentTime = time;
-            labelViews();
-            setScroll();
         }
+        mStripShading = enabled;
+        if (mTimeViewStyle != null) {
+            mTimeViewStyle.setChildBackgrounds(!enabled);
+        }
+        if (mModel != null && mModel.hasSlots() && mSlotViews != null) {
+            // the children add or remove their backgrounds
+            bindViews(0, mSlotViews.length);
+        }
+        invalidate();
+    }
+
+    public boolean isStripShading() {
+        return mStripShading;
+    }
 
-        if (parent != null) {
-            parent.setTimeByChild(currentTime);
+    public void setTimeByChild(long time) {
+//        Log.i(TAG, "setTimeByChild " + Util.format(time) + " for " + mLabeler.getClass().getCanonicalName() +
+//                " and " + getCenterTimeObject() );
+        if (mModel.followChild(time) && parent != null) {
+            parent.setTimeByChild(mModel.getCurrentTime());
         }
     }
 
     public void setTimeByParent(long time) {
-        if (mCenterView.getTimeObject().startTime <= time && mCenterView.getTimeObject().endTime >= time) {
+        if (!mModel.followParent(time)) {
             // the time has not changed so much, we still show the correct item
             if (child != null) {
                 child.setTimeByParent(time);
@@ -303,10 +505,6 @@ public class ScrollLayout extends LinearLayout {
             return;
         }
 
-        currentTime = time;
-        labelViews();
-        setScroll();
-
         if (child != null) {
             child.setTimeByParent(time);
         } else {
@@ -320,38 +518,116 @@ public class ScrollLayout extends LinearLayout {
      * @param time the time in milliseconds since epoch
      */
     public void setTime(long time) {
-        currentTime = time;
-        if (mCenterView == null)
-            return;
-        labelViews();
-        setScroll();
-    }
-
-    private void labelViews() {
-        //Log.i(TAG, "  setTime " + Util.format(currentTime) + " for " + mLabeler.getClass().getCanonicalName() + " and " + getChildCount());
-        mCenterView.setTime(mLabeler.getElem(currentTime));
-        //Log.i(TAG, "time " + mLabeler.getClass().getCanonicalName() + ": " + mLabeler.getElem(currentTime).toString());
-        for (int i = centerIndex + 1; i < getChildCount(); i++) {
-            TimeView lastView = (TimeView) getChildAt(i - 1);
-            TimeView thisView = (TimeView) getChildAt(i);
-            if (thisView != null && lastView != null) {
-                thisView.setTime(mLabeler.add(lastView.getTimeObject().getDisplayTime(), 1));
+        mModel.setTime(time);
+    }
+
+    /**
+     * Renders the changes of the slots of mModel
+     */
+    private final SliderModel.Listener mModelListener = new SliderModel.Listener() {
+        @Override
+        public void onSlotsChanged() {
+            if (renderMode == RENDER_MODE_CANVAS) {
+                invalidate();
+            } else {
+                bindChangedViews();
+                invalidateShading();
+            }
+        }
+
+        @Override
+        public void onSlotsMoved(int steps) {
+            moveElements(steps);
+            if (renderMode != RENDER_MODE_CANVAS) {
+                invalidateShading();
+            }
+        }
+
+        @Override
+        public void onScrollChanged(int viewScrollX) {
+            ScrollLayout.super.scrollTo(viewScrollX, 0);
+        }
+
+        @Override
+        public void onLimitReached() {
+            if (!mScroller.isFinished()) mScroller.abortAnimation();
+        }
+    };
+
+    /**
+     * @return a new child created by the labeler, replaced by a FixedTimeTextView if enabled
+     */
+    private TimeView createView(boolean isCenterView) {
+        TimeView view = mViewFactory.createView(getContext(), isCenterView);
+        if (mFixedSizeViews && view instanceof TextView) {
+            return new FixedTimeTextView(getContext(), createTextPaint(view, isCenterView));
+        }
+        return view;
+    }
+
+    /**
+     * Sets the TimeObjects of the given range of slots on the corresponding children
+     */
+    private void bindViews(int from, int to) {
+        TimeObject[] slots = mModel.getSlots();
+        for (int i = from; i < to; i++) {
+            TimeView tv = viewAt(i);
+            if (tv != null) {
+                tv.setTime(slots[i]);
             }
         }
-        for (int i = centerIndex - 1; i >= 0; i--) {
-            TimeView lastView = (TimeView) getChildAt(i + 1);
-            TimeView thisView = (TimeView) getChildAt(i);
-            if (thisView != null && lastView != null) {
-                thisView.setTime(mLabeler.add(lastView.getTimeObject().getDisplayTime(), -1));
+    }
+
+    /**
+     * Sets the TimeObjects of the slots on the children which do not display it yet
+     */
+    private void bindChangedViews() {
+        TimeObject[] slots = mModel.getSlots();
+        for (int i = 0; i < slots.length; i++) {
+            TimeView tv = viewAt(i);
+            if (tv != null && tv.getTimeObject() != slots[i]) {
+                tv.setTime(slots[i]);
             }
         }
     }
 
+    /**
+     * @param slot the position of the child from the left, 0 to the number of slots - 1
+     * @return the child which is displayed at the given position, null in canvas mode
+     */
+    protected TimeView viewAt(int slot) {
+        return mSlotViews[slot];
+    }
+
+    /**
+     * Moves every child except the center view by -steps slots, the children which are moved
+     * out of the layout at one end come in at the other end.
+     */
+    private void rotateViews(int steps) {
+        int count = mSlotViews.length;
+        int ringSize = count - 1;
+        int centerIndex = mModel.getCenterIndex();
+        System.arraycopy(mSlotViews, 0, mRotateViews, 0, count);
+        System.arraycopy(mSlotChildren, 0, mRotateChildren, 0, count);
+        for (int slot = 0; slot < count; slot++) {
+            if (slot == centerIndex) {
+                continue;
+            }
+            // the position in the ring, which skips the center view
+            int position = slot < centerIndex ? slot : slot - 1;
+            int source = ((position - steps) % ringSize + ringSize) % ringSize;
+            int sourceSlot = source < centerIndex ? source : source + 1;
+            mSlotViews[slot] = mRotateViews[sourceSlot];
+            mSlotChildren[slot] = mRotateChildren[sourceSlot];
+            ((View) mSlotViews[slot]).setTranslationX((slot - mSlotChildren[slot]) * objWidth);
+        }
+    }
+
     public long getTime() {
-        return mCenterView.getTimeObject().getDisplayTime();
+        return mModel.getTime();
 //        if (timeBoundaries.minuteInterval == 1)
-//            return mCenterView.getTimeObject().startTime;
-//        return (mCenterView.getTimeObject().startTime + mCenterView.getTimeObject().endTime + 1) / 2;
+//            return getCenterTimeObject().startTime;
+//        return (getCenterTimeObject().startTime + getCenterTimeObject().endTime + 1) / 2;
     }
 
     /**
@@ -360,10 +636,21 @@ public class ScrollLayout extends LinearLayout {
     @Override
     public void computeScroll() {
         if (mScroller.computeScrollOffset()) {
-            mScrollX = mScroller.getCurrX();
-            reScrollTo(mScrollX, 0, true);
+            if (mModel.isFastFling() && (mScroller.getCurrVelocity() < PREDICTIVE_FLING_SLOTS_PER_SECOND * objWidth
+                    || Math.abs(mScroller.getFinalX() - mScroller.getCurrX()) < mModel.getSlotCount() * objWidth)) {
+                mModel.finishFastFling();
+            }
+            // the fling is bounded to minTime and maxTime, so the limits need not be checked
+            reScrollTo(mScroller.getCurrX(), 0, true, false);
             // Keep on drawing until the animation has finished.
             postInvalidate();
+        } else {
+            // the fling may have been stopped at the min or max time
+            mModel.finishFastFling();
+            if (mFlinging) {
+                mFlinging = false;
+                notifySettled();
+            }
         }
     }
 
@@ -372,7 +659,26 @@ public class ScrollLayout extends LinearLayout {
         if (!mScroller.isFinished()) {
             mScroller.abortAnimation();
         }
+        mModel.finishFastFling();
         reScrollTo(x, y, true);
+        // the layout is at rest after a scroll which has not been done by the user
+        mFlinging = false;
+        if (!mDragMode) {
+            notifySettled();
+        }
+    }
+
+    /**
+     * @return true while the user drags this layout or a fling is running
+     */
+    public boolean isScrolling() {
+        return mDragMode || mFlinging;
+    }
+
+    private void notifySettled() {
+        if (settleListener != null) {
+            settleListener.onSettle(this);
+        }
     }
 
     /**
@@ -382,173 +688,232 @@ public class ScrollLayout extends LinearLayout {
      * @param notify if false, the listeners won't be called
      */
     protected void reScrollTo(int x, int y, boolean notify) {
-        //if (notify) Log.d(TAG, String.format("reScrollTo " + x));
-        int scrollX = getScrollX();
-        int scrollDiff = x - mLastScroll;
-        if (scrollDiff == 0)
-            return;
-
-        //Log.i(TAG, "f is " + f);
-
-        // estimate whether we are going to reach the lower limit
-        if (timeBoundaries.minTime != -1 && notify && scrollDiff < 0) {
-            double curr_per = calculateF(scrollX);
-            long esp_time = (long) (mCenterView.getTimeObject().getStartTime() + (curr_per - ((double) -scrollDiff) / objWidth) * (mCenterView.getTimeObject().getEndTime() - mCenterView.getTimeObject().getStartTime()));
+        reScrollTo(x, y, notify, notify);
+    }
 
-            // if we reach it, prevent surpassing it
-            if (esp_time < timeBoundaries.minTime) {
-                int deviation = scrollDiff - (int) Math.round(((double) (currentTime - timeBoundaries.minTime)) / (currentTime - esp_time) * scrollDiff);
-                mScrollX -= deviation;
-                x -= deviation;
-                scrollDiff -= deviation;
-                if (!mScroller.isFinished()) mScroller.abortAnimation();
-            }
-        }
-        // estimate whether we are going to reach the upper limit
-        else if (timeBoundaries.maxTime != -1 && notify && scrollDiff > 0) {
-            double curr_per = calculateF(scrollX);
-            long esp_time = (long) (mCenterView.getTimeObject().getStartTime() + (curr_per - ((double) -scrollDiff) / objWidth) * (mCenterView.getTimeObject().getEndTime() - mCenterView.getTimeObject().getStartTime()));
-
-            // if we reach it, prevent surpassing it
-            if (esp_time > timeBoundaries.maxTime) {
-                int deviation = scrollDiff - (int) Math.round(((double) (currentTime - timeBoundaries.maxTime)) / (currentTime - esp_time) * scrollDiff);
-                mScrollX -= deviation;
-                x -= deviation;
-                scrollDiff -= deviation;
-                if (!mScroller.isFinished()) mScroller.abortAnimation();
-            }
+    /**
+     * @param checkLimits if true, the scroll distance is reduced so that minTime and maxTime are
+     *                    not surpassed
+     */
+    private void reScrollTo(int x, int y, boolean notify, boolean checkLimits) {
+        //if (notify) Log.d(TAG, String.format("reScrollTo " + x));
+        if (mModel.scrollTo(x, checkLimits) && notify) {
+            notifyParentChild();
         }
+    }
 
-        // Determine the absolute x-value for where we are being asked to scroll
-        scrollX += scrollDiff;
-
+    private void notifyParentChild() {
+        long parentTime = mModel.updateCurrentTime();
+        if (parent != null && timeSync == null)
+            parent.setTimeByChild(parentTime);
 
-        // If we've scrolled more than half of a view width in either direction, then
-        // a different time is the "current" time, and we need to shuffle our views around.
-        // Each additional full view's width on top of the initial half view's width is
-        // another position that we need to move our elements. So, we need to add half the
-        // width to the amount we've scrolled and then compute how many full multiples of
-        // the view width that encompasses to determine how far to move our elements.
-        if (scrollX - mInitialOffset > objWidth / 2) {
-//            Log.i(TAG, "  move1 " + scrollX + ", " + mInitialOffset + ", " + objWidth);
-            // Our scroll target relative to our initial offset
-            int relativeScroll = scrollX - mInitialOffset;
-            int stepsRight = (relativeScroll + (objWidth / 2)) / objWidth;
-            moveElements(-stepsRight);
-            // Now modify the scroll target based on our view shuffling.
-            scrollX = ((relativeScroll - objWidth / 2) % objWidth) + mInitialOffset - objWidth / 2;
-        } else if (mInitialOffset - scrollX > objWidth / 2) {
-//            Log.i(TAG, "  move2 " + scrollX + ", " + mInitialOffset + ", " + objWidth);
-            int relativeScroll = mInitialOffset - scrollX;
-            int stepsLeft = (relativeScroll + (objWidth / 2)) / objWidth;
-            moveElements(stepsLeft);
-            scrollX = (mInitialOffset + objWidth / 2 - ((mInitialOffset + objWidth / 2 - scrollX) % objWidth));
+        long childTime = parentTime;
+        if (child != null) {
+            childTime = mModel.bindCurrentTime();
+            if (timeSync == null)
+                child.setTimeByParent(childTime);
         }
-
-        super.scrollTo(scrollX, y);
-
-        if (notify) {
-            notifyParentChild(scrollX);
+        if (timeSync != null) {
+            timeSync.requestSync(this, parentTime, childTime);
+        } else if (child == null) {
+            listener.onScroll(getTime());
         }
-        mLastScroll = x;
     }
 
     /**
-     * This is the ccore version of reScrollTo() without the possibility to move the timelabels. It
-     * is used for internal calls only where it is 100% sure that relabeling is not needed.
+     * Follows the time of the child like {@link #setTimeByChild(long)}, but does not update
+     * the parent.
+     *
+     * @return true if the labels have changed, i.e. the parent must follow too
      */
-    protected void reScrollToWithoutMove(int x, int y) {
-        //if (notify) Log.d(TAG, String.format("reScrollTo " + x));
-        int scrollX = getScrollX();
-        int scrollDiff = x - mLastScroll;
-        if (scrollDiff == 0)
-            return;
-
-        //Log.i(TAG, "f is " + f);
+    boolean syncWithChild(long time) {
+        return mModel.followChild(time);
+    }
 
-        // Determine the absolute x-value for where we are being asked to scroll
-        scrollX += scrollDiff;
+    /**
+     * Follows the time of the parent like {@link #setTimeByParent(long)}, but does not update
+     * the child.
+     *
+     * @return true if the labels have changed
+     */
+    boolean syncWithParent(long time) {
+        return mModel.followParent(time);
+    }
 
+    /**
+     * Lets the given TimeSync update the parent and child when this layout is scrolled, instead
+     * of updating them directly
+     */
+    public void setTimeSync(TimeSync timeSync) {
+        this.timeSync = timeSync;
+    }
 
-        super.scrollTo(scrollX, y);
+    /**
+     * Renders a scroll step of the model, which has moved its TimeObjects by -steps slots
+     */
+    private void moveElements(int steps) {
+        int count = mSlotViews.length;
+        int shift = Math.min(Math.abs(steps), count);
+        if (renderMode == RENDER_MODE_CANVAS) {
+            // keep the text layouts with their TimeObjects, the ones which do not match
+            // anymore are recreated in onDraw()
+            if (steps < 0) {
+                System.arraycopy(mCellLayouts, shift, mCellLayouts, 0, count - shift);
+                System.arraycopy(mCellLayoutTexts, shift, mCellLayoutTexts, 0, count - shift);
+            } else {
+                System.arraycopy(mCellLayouts, 0, mCellLayouts, shift, count - shift);
+                System.arraycopy(mCellLayoutTexts, 0, mCellLayoutTexts, shift, count - shift);
+            }
+            invalidate();
+        } else if (renderMode == RENDER_MODE_RING) {
+            // the children keep their TimeObjects and move along with them, so only the
+            // children which come in at the ends and the ones next to the center view need
+            // new labels
+            rotateViews(steps);
+            bindChangedViews();
+        } else {
+            bindViews(0, count);
+        }
+    }
 
-        mLastScroll = x;
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        if (renderMode == RENDER_MODE_CANVAS) {
+            // there are no children to measure, we are as high as one of them would be
+            setMeasuredDimension(resolveSize(objWidth, widthMeasureSpec),
+                    resolveSize(objHeight + getPaddingTop() + getPaddingBottom(), heightMeasureSpec));
+        } else {
+            super.onMeasure(widthMeasureSpec, heightMeasureSpec);
+        }
     }
 
-    private void notifyParentChild(int scrollX) {
-        double curr_per = calculateF(scrollX);
-        currentTime = (long) (mCenterView.getTimeObject().getStartTime() + (mCenterView.getTimeObject().getEndTime() - mCenterView.getTimeObject().getStartTime()) * curr_per);
-        if (parent != null)
-            parent.setTimeByChild(currentTime);
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mStripShading) {
+            drawOobShading(canvas);
+        }
+        if (renderMode != RENDER_MODE_CANVAS || mCellLayouts == null) {
+            return;
+        }
+        // the canvas is already translated by the scroll position, so the slots are drawn
+        // where the children would be
+        int height = getHeight();
+        TimeObject[] slots = mModel.getSlots();
+        for (int i = 0; i < slots.length; i++) {
+            TimeObject timeObject = slots[i];
+            if (timeObject == null) {
+                continue;
+            }
+            int left = i * objWidth;
+            // the children would show the backgrounds, so they are drawn unless the strip is shaded
+            Drawable background = getTimeViewStyle().hasChildBackgrounds()
+                    ? getTimeViewStyle().getStripBackground(TimeViewStyle.oobIndex(timeObject)) : null;
+            if (background != null) {
+                background.setBounds(left, 0, left + objWidth, height);
+                background.draw(canvas);
+            }
+            StaticLayout layout = getCellLayout(i, timeObject);
+            canvas.save();
+            canvas.translate(left, (height - layout.getHeight()) / 2f);
+            layout.draw(canvas);
+            canvas.restore();
+        }
+    }
 
-        if (child != null) {
-            Calendar c = Calendar.getInstance();
-            c.setTimeInMillis(currentTime);
-            c.setTimeInMillis(Util.bindToMinMax(timeBoundaries, c.getTimeInMillis()));
-            c = Util.minStartTime(timeBoundaries, c);
-            c = Util.maxEndTime(timeBoundaries, c);
-            currentTime = c.getTimeInMillis();
-
-            child.setTimeByParent(currentTime);
-        } else {
-            listener.onScroll(getTime());
+    /**
+     * @return the text layout of the given slot, created if the slot shows a new TimeObject
+     */
+    private StaticLayout getCellLayout(int slot, TimeObject timeObject) {
+        TextPaint paint = slot == mModel.getCenterIndex() ? mCenterTextPaint : mTextPaint;
+        StaticLayout layout = mCellLayouts[slot];
+        // the labels are shared by equal TimeObjects, so comparing the texts also keeps the
+        // layouts of the placeholders and of the labels which come back into view
+        if (layout == null || mCellLayoutTexts[slot] != timeObject.text || layout.getPaint() != paint) {
+            layout = new StaticLayout(timeObject.text, paint, objWidth, Layout.Alignment.ALIGN_CENTER, 1, 0, false);
+            mCellLayouts[slot] = layout;
+            mCellLayoutTexts[slot] = timeObject.text;
         }
+        return layout;
     }
 
-    private double calculateF(int scrollX) {
-        double center = getWidth() / 2.0;
-        long left = (getChildCount() / 2) * objWidth - scrollX;
-        double f = (center - left) / (double) objWidth;
-        assert (f >= 0 && f <= 1);
-        return f;
+    /**
+     * Redraws the shading of the slots, the children only redraw themselves when they are relabeled
+     */
+    private void invalidateShading() {
+        if (mStripShading) {
+            invalidate();
+        }
     }
 
     /**
-     * when the scrolling procedure causes "steps" elements to fall out of the visible layout,
-     * all TimeTextViews swap their contents so that it appears that there happens an endless
-     * scrolling with a very limited amount of views
+     * Shades the out of bounds times of all slots beneath the labels. Consecutive slots which are
+     * completely out of bounds are filled as one span, the slots containing minTime, maxTime,
+     * startHour or endHour get the gradient a child would show.
      */
-    protected void moveElements(int steps) {
-        if (steps == 0) {
+    private void drawOobShading(Canvas canvas) {
+        if (mModel == null || !mModel.hasSlots()) {
             return;
         }
-
-        // We need to make each TimeView reflect a value that is -steps units
-        // from its current value. As an optimization, we will see if this
-        // value is already present in another child (by looking to see if there
-        // is a child at an index -steps offset from the target child's index).
-        // Since this method is most often called with steps equal to 1 or -1,
-        // this is a valuable optimization. However, when doing this we need to
-        // make sure that we don't overwrite the value of the other child before
-        // we copy the value out. So, when steps is negative, we will be pulling
-        // values from children with larger indexes and we want to iterate forwards.
-        // When steps is positive, we will be pulling values from children with
-        // smaller indexes, and we want to iterate backwards.
-
-        int start;
-        int end;
-        int direction;
-        if (steps < 0) {
-            start = 0;
-            end = getChildCount();
-            direction = 1;
-        } else {
-            start = getChildCount() - 1;
-            end = -1;
-            direction = -1;
+        TimeViewStyle style = getTimeViewStyle();
+        if (mOobPaint == null) {
+            mOobPaint = new Paint();
+            mOobPaint.setColor(style.getOobColor());
         }
-        for (int i = start; i != end; i += direction) {
-            TimeView tv = (TimeView) getChildAt(i);
-            if (null == tv) {
+        // the canvas is already translated by the scroll position, so the slots are at the
+        // positions of the children
+        int height = getHeight();
+        TimeObject[] slots = mModel.getSlots();
+        int spanStart = -1;
+        for (int i = 0; i <= slots.length; i++) {
+            TimeObject timeObject = i < slots.length ? slots[i] : null;
+            if (timeObject != null && timeObject.outOfBounds) {
+                if (spanStart < 0) {
+                    spanStart = i;
+                }
                 continue;
             }
-            int index = i - steps;
-            if (index >= 0 && index < getChildCount()) {
-                tv.setTime(((TimeView) getChildAt(index)).getTimeObject());
+            if (spanStart >= 0) {
+                canvas.drawRect(spanStart * objWidth, 0, i * objWidth, height, mOobPaint);
+                spanStart = -1;
+            }
+            int oobIndex = timeObject != null ? TimeViewStyle.oobIndex(timeObject) : TimeViewStyle.OOB_NONE;
+            if (oobIndex != TimeViewStyle.OOB_NONE) {
+                Drawable background = style.getStripBackground(oobIndex);
+                background.setBounds(i * objWidth, 0, (i + 1) * objWidth, height);
+                background.draw(canvas);
+            }
+        }
+    }
+
+    /**
+     * Creates the paints for canvas mode. The text appearance is taken from the
+     * views of the labeler so that the slots look like the children would.
+     */
+    private void setupCanvasStyle() {
+        mTextPaint = createTextPaint(mViewFactory.createView(getContext(), false), false);
+        mCenterTextPaint = createTextPaint(mViewFactory.createView(getContext(), true), true);
+    }
+
+    private TextPaint createTextPaint(TimeView prototype, boolean isCenterView) {
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        if (prototype instanceof TextView) {
+            TextView textView = (TextView) prototype;
+            paint.setTextSize(textView.getTextSize());
+            paint.setColor(textView.getCurrentTextColor());
+            paint.setTypeface(textView.getTypeface());
+        } else {
+            float density = getResources().getDisplayMetrics().density;
+            if (isCenterView) {
+                paint.setTextSize((DEFAULT_TEXT_SIZE * 120) / 100 * density);
+                paint.setColor(getResources().getColor(R.color.centerTextColor));
+                paint.setTypeface(Typeface.DEFAULT_BOLD);
             } else {
-                tv.setTime(mLabeler.add(tv.getTimeObject().getDisplayTime(), -steps));
+                paint.setTextSize(DEFAULT_TEXT_SIZE * density);
+                paint.setColor(getResources().getColor(R.color.textColor));
             }
         }
+        return paint;
     }
 
     /**
@@ -564,6 +929,11 @@ public class ScrollLayout extends LinearLayout {
             if (!mScroller.isFinished()) {
                 mScroller.abortAnimation();
             }
+            mFlinging = false;
+            if (mPrefetcher != null) {
+                mPrefetcher.cancel();
+            }
+            mModel.finishFastFling();
         }
 
         if (!mDragMode)
@@ -581,8 +951,7 @@ public class ScrollLayout extends LinearLayout {
             case MotionEvent.ACTION_MOVE:
                 if (mLastX != x) {
                     // only if moved since the last call
-                    mScrollX += mLastX - x;
-                    reScrollTo(mScrollX, 0, true);
+                    reScrollTo(mModel.getScrollX() + mLastX - x, 0, true);
                     moveMode = true;
                 }
                 break;
@@ -595,18 +964,20 @@ public class ScrollLayout extends LinearLayout {
                     if (initialVelocity < mMaximumVelocity * -1)
                         initialVelocity = mMaximumVelocity * -1;
 
-                    if (getChildCount() > 0 && Math.abs(initialVelocity) > mMinimumVelocity) {
+                    if (mModel.getSlotCount() > 0 && Math.abs(initialVelocity) > mMinimumVelocity) {
                         Log.i(TAG, "fling " + initialVelocity);
                         fling(-initialVelocity);
                     }
                 } else {
-                    Log.i(TAG, "click " + mScrollX + ", " + mLastX + ", " + x);
-                    mScrollX += x - getWidth() / 2;
-                    reScrollTo(mScrollX, 0, true);
+                    Log.i(TAG, "click " + mModel.getScrollX() + ", " + mLastX + ", " + x);
+                    reScrollTo(mModel.getScrollX() + x - getWidth() / 2, 0, true);
                 }
             case MotionEvent.ACTION_CANCEL:
             default:
                 mDragMode = false;
+                if (!mFlinging) {
+                    notifySettled();
+                }
 
         }
         mLastX = x;
@@ -619,19 +990,75 @@ public class ScrollLayout extends LinearLayout {
      * computeScroll method
      */
     private void fling(int velocityX) {
-        if (getChildCount() > 0) {
-            mScroller.fling(mScrollX, 0, velocityX, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 0);
+        if (mModel.getSlotCount() > 0) {
+            int scrollX = mModel.getScrollX();
+            mScroller.fling(scrollX, 0, velocityX, 0, mModel.getMinScrollX(), mModel.getMaxScrollX(), 0, 0);
+            mFlinging = true;
+            boolean fastFling = mPredictiveFling && mModel.startFastFling(mScroller.getFinalX());
+            // a fast predictive fling does not need the labels of the slots it passes
+            if (mPrefetcher != null && !fastFling) {
+                prefetch(velocityX);
+            }
             invalidate();
         }
     }
 
+    /**
+     * Starts computing the elements which come into view until the fling ends
+     */
+    private void prefetch(int velocityX) {
+        if (!mModel.hasSlots()) {
+            return;
+        }
+        long version = timeBoundaries.getVersion();
+        if (mPrefetchLabeler == null || mPrefetchVersion != version) {
+            // the labeler of the background thread gets its own copy of the boundaries, so
+            // they cannot change while it is computing
+            mPrefetchLabeler = LabelerRegistry.create(className, labelerFormat, new TimeBoundaries(timeBoundaries.snapshot()));
+            mPrefetchLabeler.setAttributeProvider(mAttributeProvider);
+            mPrefetchVersion = version;
+        }
+        // one element comes into view for every slot the fling moves
+        int count = Math.abs(mScroller.getFinalX() - mModel.getScrollX()) / objWidth + 1;
+        TimeObject[] slots = mModel.getSlots();
+        if (velocityX > 0) {
+            mPrefetcher.prefetch(mPrefetchLabeler, version, slots[slots.length - 1], 1, count);
+        } else {
+            mPrefetcher.prefetch(mPrefetchLabeler, version, slots[0], -1, count);
+        }
+    }
+
     public void setOnScrollListener(OnScrollListener l) {
         listener = l;
     }
 
+    public void setOnSettleListener(OnSettleListener l) {
+        settleListener = l;
+    }
+
     /////////////////////////////////////////////////////////////////////////
 
     public interface OnScrollListener {
         public void onScroll(long x);
     }
+
+    /**
+     * Gets informed when the user has released this layout and a fling has ended
+     */
+    public interface OnSettleListener {
+        public void onSettle(ScrollLayout source);
+    }
+
+    /**
+     * Updates the other layouts of a slider after one of them has been scrolled
+     */
+    public interface TimeSync {
+
+        /**
+         * @param source     the layout which has been scrolled
+         * @param parentTime the time its parent must follow
+         * @param childTime  the time its child must follow, bound to the limits of the boundaries
+         */
+        public void requestSync(ScrollLayout source, long parentTime, long childTime);
+    }
 }
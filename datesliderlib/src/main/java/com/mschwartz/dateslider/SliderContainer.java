@@ -1,13 +1,18 @@
 package com.mschwartz.dateslider;
 
 import android.content.Context;
+import android.os.Build;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.View;
 import android.widget.LinearLayout;
 
+import com.mschwartz.dateslider.labeler.TimeAttributeProvider;
 import com.mschwartz.dateslider.labeler.Util;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.TimeZone;
 
 /**
@@ -15,13 +20,49 @@ import java.util.TimeZone;
  * between them, so that if one is scrolled, the others are scrolled too to
  * keep a consistent display of the time. It also notifies an optional
  * observer anytime the time is changed.
+ * <p/>
+ * The other ScrollLayouts do not follow a scrolled one immediately. The container collects
+ * the scroll steps and updates every other ScrollLayout once per frame with the latest time,
+ * so no ScrollLayout is relabeled twice within a frame.
+ * <p/>
+ * Each listener is registered with a delivery policy which decides how often it is called
+ * while the user scrolls, see {@link #DELIVER_EVERY_CHANGE}, {@link #DELIVER_PER_FRAME},
+ * {@link #DELIVER_ON_SLOT_CHANGE} and {@link #DELIVER_ON_SETTLE}.
  */
 public class SliderContainer extends LinearLayout {
 
     private static String TAG = "SliderContainer";
 
     /**
-     * The currently selected time in local timezone. Changes whenever the user moves one of the sliders.
+     * The listener is called for every change of the time, i.e. after every scroll step
+     */
+    public static final int DELIVER_EVERY_CHANGE = 0;
+
+    /**
+     * The listener is called at most once per frame with the latest time
+     */
+    public static final int DELIVER_PER_FRAME = 1;
+
+    /**
+     * The listener is called when the selected slot of the last ScrollLayout changes, i.e.
+     * only if the time differs from the one it has been called with before
+     */
+    public static final int DELIVER_ON_SLOT_CHANGE = 2;
+
+    /**
+     * The listener is called when the user has released the sliders and all flings have ended,
+     * or when the time is set by the app
+     */
+    public static final int DELIVER_ON_SETTLE = 3;
+
+    /**
+     * The currently selected time. Changes whenever the user moves one of the sliders.
+     */
+    private long mTimeMillis = System.currentTimeMillis();
+
+    /**
+     * The currently selected time in the timezone of the boundaries, updated from mTimeMillis
+     * when it is requested
      */
     private final Calendar mTime = Calendar.getInstance();
 
@@ -30,11 +71,75 @@ public class SliderContainer extends LinearLayout {
      */
     private OnTimeChangeListener mOnTimeChangeListener;
 
+    /**
+     * Like mOnTimeChangeListener, but gets the time without creating a Calendar
+     */
+    private OnTimeMillisChangeListener mOnTimeMillisChangeListener;
+
+    /**
+     * The delivery policies and states of the two listeners
+     */
+    private final Delivery mTimeChangeDelivery = new Delivery();
+
+    private final Delivery mTimeMillisChangeDelivery = new Delivery();
+
     private final TimeBoundaries timeBoundaries = new TimeBoundaries();
 
+    /**
+     * The ScrollLayouts from the parent to the last child
+     */
+    private final List<ScrollLayout> mRows = new ArrayList<ScrollLayout>();
+
+    /**
+     * The ScrollLayout which has been scrolled since the last frame and the times its parents
+     * and children must follow, mSyncSource is null if there is nothing to do
+     */
+    private ScrollLayout mSyncSource;
+
+    private long mSyncParentTime;
+
+    private long mSyncChildTime;
+
+    private boolean mFrameScheduled;
+
+    private final ScrollLayout.TimeSync mTimeSync = new ScrollLayout.TimeSync() {
+        @Override
+        public void requestSync(ScrollLayout source, long parentTime, long childTime) {
+            // the latest scroll step wins, it already contains the ones before
+            mSyncSource = source;
+            mSyncParentTime = parentTime;
+            mSyncChildTime = childTime;
+            scheduleFrame();
+        }
+    };
+
+    private final ScrollLayout.OnSettleListener mOnSettleListener = new ScrollLayout.OnSettleListener() {
+        @Override
+        public void onSettle(ScrollLayout source) {
+            // the time of the last scroll step is known after the next sync
+            if (mTimeChangeDelivery.pending || mTimeMillisChangeDelivery.pending) {
+                scheduleFrame();
+            }
+        }
+    };
+
+    private final Runnable mFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mFrameScheduled = false;
+            sync();
+            deliverPending();
+        }
+    };
+
+    /**
+     * Created on API 16 and above only, as Choreographer does not exist before
+     */
+    private Object mFrameCallback;
+
     public SliderContainer(Context context, AttributeSet attrs) {
         super(context, attrs);
-        timeBoundaries.minuteInterval = 1;
+        timeBoundaries.setMinuteInterval(1);
         setOrientation(VERTICAL);
     }
 
@@ -50,14 +155,13 @@ public class SliderContainer extends LinearLayout {
                 sl.setOnScrollListener(
                         new ScrollLayout.OnScrollListener() {
                             public void onScroll(long x) {
-                                mTime.setTimeInMillis(x);
-                                //arrangeScrollLayout(sl);
-                                if (mOnTimeChangeListener != null) {
-                                    mOnTimeChangeListener.onTimeChange(mTime);
-                                }
+                                onRowScrolled(x);
                             }
                         });
+                sl.setTimeSync(mTimeSync);
+                sl.setOnSettleListener(mOnSettleListener);
                 sl.setTimeBoundaries(timeBoundaries);
+                mRows.add(sl);
                 if (last != null) {
                     sl.setParent(last);
                     last.setChild(sl);
@@ -69,14 +173,14 @@ public class SliderContainer extends LinearLayout {
 
     public void setTime(Calendar calendar, TimeBoundaries tempTimeBoundaries) {
         if (tempTimeBoundaries.minuteInterval > 1)
-            timeBoundaries.minuteInterval = tempTimeBoundaries.minuteInterval;
+            timeBoundaries.setMinuteInterval(tempTimeBoundaries.minuteInterval);
         if (tempTimeBoundaries.startHour != -1) {
             Calendar c = Calendar.getInstance();
             c.set(Calendar.HOUR_OF_DAY, tempTimeBoundaries.startHour);
             c.set(Calendar.MINUTE, 0);
             c.set(Calendar.SECOND, 0);
             c.set(Calendar.MILLISECOND, 0);
-            timeBoundaries.startHour = Util.alignMinuteInterval(timeBoundaries, c).get(Calendar.HOUR_OF_DAY);
+            timeBoundaries.setHours(Util.alignMinuteInterval(timeBoundaries, c).get(Calendar.HOUR_OF_DAY), timeBoundaries.endHour);
         }
         if (tempTimeBoundaries.endHour != -1) {
             Calendar c = Calendar.getInstance();
@@ -85,19 +189,19 @@ public class SliderContainer extends LinearLayout {
             c.set(Calendar.SECOND, 0);
             c.set(Calendar.MILLISECOND, 0);
             c.add(Calendar.MILLISECOND, -1);
-            timeBoundaries.endHour = Util.alignMinuteInterval(timeBoundaries, c).get(Calendar.HOUR_OF_DAY) + 1;
+            timeBoundaries.setHours(timeBoundaries.startHour, Util.alignMinuteInterval(timeBoundaries, c).get(Calendar.HOUR_OF_DAY) + 1);
         }
         if (tempTimeBoundaries.minTime != -1) {
             Calendar c = Calendar.getInstance();
             c.setTimeInMillis(tempTimeBoundaries.minTime);
-            timeBoundaries.minTime = Util.maxEndTime(timeBoundaries, Util.minStartTime(timeBoundaries, c)).getTimeInMillis();
+            timeBoundaries.setMinTime(Util.maxEndTime(timeBoundaries, Util.minStartTime(timeBoundaries, c)).getTimeInMillis());
         }
         if (tempTimeBoundaries.maxTime != -1) {
             Calendar c = Calendar.getInstance();
             c.setTimeInMillis(tempTimeBoundaries.maxTime);
-            timeBoundaries.maxTime = Util.maxEndTime(timeBoundaries, Util.minStartTime(timeBoundaries, c)).getTimeInMillis();
+            timeBoundaries.setMaxTime(Util.maxEndTime(timeBoundaries, Util.minStartTime(timeBoundaries, c)).getTimeInMillis());
         }
-        timeBoundaries.timezone = tempTimeBoundaries.timezone;
+        timeBoundaries.setTimezone(tempTimeBoundaries.timezone);
         calendar.setTimeZone(timeBoundaries.timezone);
         setTime(calendar);
     }
@@ -112,7 +216,7 @@ public class SliderContainer extends LinearLayout {
         calendar = Util.maxEndTime(timeBoundaries, calendar);
         calendar = Util.alignMinuteInterval(timeBoundaries, calendar);
 
-        mTime.setTimeInMillis(calendar.getTimeInMillis());
+        mTimeMillis = calendar.getTimeInMillis();
 
         arrangeScrollLayout(null);
     }
@@ -123,32 +227,68 @@ public class SliderContainer extends LinearLayout {
      * @return The current time
      */
     public Calendar getTime() {
+        if (mTime.getTimeZone() != timeBoundaries.timezone) {
+            mTime.setTimeZone(timeBoundaries.timezone);
+        }
+        mTime.setTimeInMillis(mTimeMillis);
         return mTime;
     }
 
+    /**
+     * @return the current time in milliseconds since epoch, without updating a Calendar
+     */
+    public long getTimeInMillis() {
+        return mTimeMillis;
+    }
+
     public void setMinTime(long minTime) {
-        timeBoundaries.minTime = minTime;
+        timeBoundaries.setMinTime(minTime);
         arrangeScrollLayout(null);
     }
 
     public void setMaxTime(long maxTime) {
-        timeBoundaries.maxTime = maxTime;
+        timeBoundaries.setMaxTime(maxTime);
         arrangeScrollLayout(null);
     }
 
     public void setMinuteInterval(int minuteInterval) {
-        timeBoundaries.minuteInterval = minuteInterval;
+        timeBoundaries.setMinuteInterval(minuteInterval);
         arrangeScrollLayout(null);
     }
 
     public void setHours(int startHour, int endHour) {
-        timeBoundaries.startHour = startHour;
-        timeBoundaries.endHour = endHour;
+        timeBoundaries.setHours(startHour, endHour);
         arrangeScrollLayout(null);
     }
 
     public void setTimezone(TimeZone timezone) {
-        timeBoundaries.timezone = timezone;
+        timeBoundaries.setTimezone(timezone);
+    }
+
+    /**
+     * Sets all boundaries at once, e.g. from a snapshot created with
+     * {@link TimeBoundaries.Snapshot.Builder}.
+     */
+    public void setTimeBoundaries(TimeBoundaries.Snapshot snapshot) {
+        timeBoundaries.set(snapshot);
+        arrangeScrollLayout(null);
+    }
+
+    /**
+     * @return an immutable copy of the current boundaries which can be passed to other threads
+     */
+    public TimeBoundaries.Snapshot getTimeBoundaries() {
+        return timeBoundaries.snapshot();
+    }
+
+    /**
+     * Sets the provider of the flags of the app, e.g. holidays, on the TimeObjects of all
+     * ScrollLayouts, see {@link ScrollLayout#setAttributeProvider(TimeAttributeProvider)}.
+     */
+    public void setAttributeProvider(TimeAttributeProvider provider) {
+        for (ScrollLayout row : mRows) {
+            row.setAttributeProvider(provider);
+        }
     }
 
     /**
@@ -156,7 +296,179 @@ public class SliderContainer extends LinearLayout {
      * set or changed.
      */
     public void setOnTimeChangeListener(OnTimeChangeListener l) {
+        setOnTimeChangeListener(l, DELIVER_EVERY_CHANGE);
+    }
+
+    /**
+     * Sets the OnTimeChangeListener, which will be notified according to the given policy.
+     *
+     * @param delivery one of the DELIVER_* constants
+     */
+    public void setOnTimeChangeListener(OnTimeChangeListener l, int delivery) {
         mOnTimeChangeListener = l;
+        mTimeChangeDelivery.reset(delivery);
+    }
+
+    /**
+     * Sets the OnTimeMillisChangeListener, which will be notified anytime the time is set or
+     * changed. Unlike an OnTimeChangeListener it does not cause a Calendar to be created on
+     * every scroll step.
+     */
+    public void setOnTimeMillisChangeListener(OnTimeMillisChangeListener l) {
+        setOnTimeMillisChangeListener(l, DELIVER_EVERY_CHANGE);
+    }
+
+    /**
+     * Sets the OnTimeMillisChangeListener, which will be notified according to the given policy.
+     *
+     * @param delivery one of the DELIVER_* constants
+     */
+    public void setOnTimeMillisChangeListener(OnTimeMillisChangeListener l, int delivery) {
+        mOnTimeMillisChangeListener = l;
+        mTimeMillisChangeDelivery.reset(delivery);
+    }
+
+    private void onRowScrolled(long time) {
+        mTimeMillis = time;
+        //arrangeScrollLayout(sl);
+        onTimeChanged(false);
+    }
+
+    /**
+     * Calls the listeners whose policy allows it and marks the others as pending
+     *
+     * @param settled true if the time has been set by the app, i.e. no slider is moving
+     */
+    private void onTimeChanged(boolean settled) {
+        if (mOnTimeMillisChangeListener != null) {
+            onTimeChanged(mTimeMillisChangeDelivery, settled);
+        }
+        if (mOnTimeChangeListener != null) {
+            onTimeChanged(mTimeChangeDelivery, settled);
+        }
+    }
+
+    private void onTimeChanged(Delivery delivery, boolean settled) {
+        switch (delivery.policy) {
+            case DELIVER_PER_FRAME:
+                delivery.pending = true;
+                scheduleFrame();
+                break;
+            case DELIVER_ON_SLOT_CHANGE:
+                if (delivery.time != mTimeMillis) {
+                    deliver(delivery);
+                }
+                break;
+            case DELIVER_ON_SETTLE:
+                delivery.pending = true;
+                if (settled && !isScrolling()) {
+                    deliverPending(delivery);
+                }
+                break;
+            default:
+                deliver(delivery);
+        }
+    }
+
+    /**
+     * Calls the listeners which have been waiting for the frame or for the sliders to settle
+     */
+    private void deliverPending() {
+        if (mOnTimeMillisChangeListener != null) {
+            deliverPending(mTimeMillisChangeDelivery);
+        }
+        if (mOnTimeChangeListener != null) {
+            deliverPending(mTimeChangeDelivery);
+        }
+    }
+
+    private void deliverPending(Delivery delivery) {
+        if (!delivery.pending) {
+            return;
+        }
+        if (delivery.policy == DELIVER_ON_SETTLE) {
+            if (isScrolling()) {
+                // the ScrollLayout calls back when it comes to rest
+                return;
+            }
+            delivery.pending = false;
+            // a tap on the center slot does not change the time
+            if (delivery.time != mTimeMillis) {
+                deliver(delivery);
+            }
+        } else {
+            delivery.pending = false;
+            deliver(delivery);
+        }
+    }
+
+    private void deliver(Delivery delivery) {
+        delivery.time = mTimeMillis;
+        if (delivery == mTimeMillisChangeDelivery) {
+            mOnTimeMillisChangeListener.onTimeChange(mTimeMillis, timeBoundaries.timezone);
+        } else {
+            // the listener may keep or change the Calendar, so it gets its own instead of mTime
+            Calendar time = Calendar.getInstance(timeBoundaries.timezone);
+            time.setTimeInMillis(mTimeMillis);
+            mOnTimeChangeListener.onTimeChange(time);
+        }
+    }
+
+    /**
+     * @return true if the user drags one of the ScrollLayouts or one of them is flinging
+     */
+    private boolean isScrolling() {
+        for (int i = 0; i < mRows.size(); i++) {
+            if (mRows.get(i).isScrolling()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs {@link #sync()} and calls the pending listeners with the next frame
+     */
+    private void scheduleFrame() {
+        if (mFrameScheduled) {
+            return;
+        }
+        mFrameScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (mFrameCallback == null) {
+                mFrameCallback = FrameCallbacks.create(mFrameRunnable);
+            }
+            FrameCallbacks.post(mFrameCallback);
+        } else {
+            post(mFrameRunnable);
+        }
+    }
+
+    /**
+     * Lets all ScrollLayouts follow the one which has been scrolled last. The parents follow
+     * it until one of them keeps its labels, the children follow the time bound to the limits.
+     */
+    private void sync() {
+        ScrollLayout source = mSyncSource;
+        mSyncSource = null;
+        int index = mRows.indexOf(source);
+        if (index < 0) {
+            return;
+        }
+        for (int i = index - 1; i >= 0; i--) {
+            if (!mRows.get(i).syncWithChild(mSyncParentTime)) {
+                break;
+            }
+        }
+        boolean relabeled = false;
+        for (int i = index + 1; i < mRows.size(); i++) {
+            relabeled = mRows.get(i).syncWithParent(mSyncChildTime);
+        }
+        // the time is the one of the last layout, it only changes if that one has been
+        // scrolled or relabeled
+        if (index == mRows.size() - 1 || relabeled) {
+            onRowScrolled(mRows.get(mRows.size() - 1).getTime());
+        }
     }
 
     /**
@@ -167,6 +479,8 @@ public class SliderContainer extends LinearLayout {
      *               this isn't the result of a ScrollLayout-generated time change.
      */
     private void arrangeScrollLayout(ScrollLayout source) {
+        // the time is set on all layouts, so a pending sync would only move them back
+        mSyncSource = null;
         final int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
             View v = getChildAt(i);
@@ -175,23 +489,78 @@ public class SliderContainer extends LinearLayout {
             }
             if (v instanceof ScrollLayout) {
                 ScrollLayout scroller = (ScrollLayout) v;
-                scroller.setTime(mTime.getTimeInMillis());
+                scroller.setTime(mTimeMillis);
             }
         }
-        if (mOnTimeChangeListener != null) {
-            Calendar calendar = Calendar.getInstance();
-            calendar.setTimeZone(timeBoundaries.timezone);
-            calendar.setTimeInMillis(mTime.getTimeInMillis());
-            mOnTimeChangeListener.onTimeChange(calendar);
+        onTimeChanged(true);
+    }
+
+    /**
+     * How and when a listener is called
+     */
+    private static final class Delivery {
+
+        /**
+         * One of the DELIVER_* constants
+         */
+        int policy = DELIVER_EVERY_CHANGE;
+
+        /**
+         * True if the listener waits for the next frame or for the sliders to settle
+         */
+        boolean pending;
+
+        /**
+         * The time the listener has been called with last
+         */
+        long time = Long.MIN_VALUE;
+
+        void reset(int policy) {
+            this.policy = policy;
+            pending = false;
+            time = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Keeps the references to Choreographer out of SliderContainer, so it can be loaded below
+     * API 16
+     */
+    private static class FrameCallbacks {
+
+        static Object create(final Runnable runnable) {
+            return new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    runnable.run();
+                }
+            };
+        }
+
+        static void post(Object callback) {
+            Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) callback);
         }
     }
 
     /////////////////////////////////////////////////////////////////////////
 
     /**
-     * This listener gets called whenever the user moves one of the time sliders.
+     * This listener gets called whenever the user moves one of the time sliders. Every call
+     * gets a new Calendar which the listener may keep.
      */
     public static interface OnTimeChangeListener {
         public void onTimeChange(Calendar time);
     }
+
+    /**
+     * This listener gets called whenever the user moves one of the time sliders, with the time
+     * as a primitive so that no Calendar is needed for every scroll step.
+     */
+    public static interface OnTimeMillisChangeListener {
+        /**
+         * @param time     the selected time in milliseconds since epoch
+         * @param timezone the timezone the sliders display the time in
+         */
+        public void onTimeChange(long time, TimeZone timezone);
+    }
 }
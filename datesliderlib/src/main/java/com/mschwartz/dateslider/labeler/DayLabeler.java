@@ -7,42 +7,34 @@ import com.mschwartz.dateslider.TimeObject;
 import com.mschwartz.dateslider.timeview.TimeTextView;
 import com.mschwartz.dateslider.timeview.TimeView;
 
-import java.util.Calendar;
-
 /**
  * A Labeler that displays days
  */
 public class DayLabeler extends Labeler {
 
-    private static String TAG = "DayLabeler";
+    /**
+     * Computes the days, this labeler only adds the views
+     */
+    private final DayTimeLabeler mTimeLabeler;
 
     public DayLabeler(String formatString, TimeBoundaries timeBoundaries) {
         super(formatString, timeBoundaries);
-    }
-
-    @Override
-    public TimeView createView(Context context, boolean isCenterView) {
-        return new TimeTextView(context, isCenterView, 20);
+        mTimeLabeler = new DayTimeLabeler(formatString, timeBoundaries);
     }
 
     @Override
     public TimeObject add(long time, int val) {
-        TimeObject result = Util.addDays(time, val, mFormatString, timeBoundaries);
-        //Log.i(TAG, "add " + val + ", " + result.toString());
-        return result;
+        return mTimeLabeler.add(time, val);
     }
 
     @Override
     public TimeObject getElem(long time) {
-
-        Calendar c = Calendar.getInstance();
-        c.setTimeZone(timeBoundaries.timezone);
-        c.setTimeInMillis(time);
-
-        TimeObject result = Util.getDay(c, mFormatString, timeBoundaries);
-        //Log.i(TAG, "getElem " + result.toString());
-        return result;
+        return mTimeLabeler.getElem(time);
     }
 
+    @Override
+    public TimeView createView(Context context, boolean isCenterView) {
+        return new TimeTextView(context, isCenterView, 20);
+    }
 
-}
\ No newline at end of file
+}
@@ -7,40 +7,34 @@ import com.mschwartz.dateslider.TimeObject;
 import com.mschwartz.dateslider.timeview.TimeTextView;
 import com.mschwartz.dateslider.timeview.TimeView;
 
-import java.util.Calendar;
-import java.util.TimeZone;
-
 /**
  * A Labeler that displays hours
  */
 public class HourLabeler extends Labeler {
 
-    private static String TAG = "HourLabeler";
+    /**
+     * Computes the hours, this labeler only adds the views
+     */
+    private final HourTimeLabeler mTimeLabeler;
 
     public HourLabeler(String formatString, TimeBoundaries timeBoundaries) {
         super(formatString, timeBoundaries);
+        mTimeLabeler = new HourTimeLabeler(formatString, timeBoundaries);
     }
 
     @Override
-    public TimeView createView(Context context, boolean isCenterView) {
-        return new TimeTextView(context, isCenterView, 26);
+    public TimeObject add(long time, int val) {
+        return mTimeLabeler.add(time, val);
     }
 
     @Override
     public TimeObject getElem(long time) {
-        Calendar c = Calendar.getInstance();
-        c.setTimeZone(timeBoundaries.timezone);
-        c.setTimeInMillis(time);
-        TimeObject result =  Util.getHour(c, mFormatString, timeBoundaries);
-        //Log.i(TAG, "getElem " + result.toString());
-        return result;
+        return mTimeLabeler.getElem(time);
     }
 
     @Override
-    public TimeObject add(long time, int val) {
-        TimeObject result = Util.addHours(time, val, mFormatString, timeBoundaries);
-        //Log.i(TAG, "add " + val + ", " + result.toString());
-        return result;
+    public TimeView createView(Context context, boolean isCenterView) {
+        return new TimeTextView(context, isCenterView, 26);
     }
 
 }
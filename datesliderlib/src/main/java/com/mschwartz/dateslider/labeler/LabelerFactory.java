@@ -0,0 +1,19 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+
+/**
+ * Creates the labeler of a ScrollLayout. Register a factory with
+ * {@link LabelerRegistry#register(String, LabelerFactory)} for the name used as labelerClass,
+ * so the labeler is constructed directly instead of by reflection.
+ */
+public interface LabelerFactory {
+
+    /**
+     * @param formatString   the labelerFormat of the ScrollLayout
+     * @param timeBoundaries the boundaries of the slider
+     * @return a new labeler which must also implement {@link com.mschwartz.dateslider.timeview.TimeViewFactory}
+     */
+    public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries);
+
+}
@@ -0,0 +1,126 @@
+package com.mschwartz.dateslider.labeler;
+
+import com.mschwartz.dateslider.TimeBoundaries;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the labelerClass names of the ScrollLayouts to the factories creating the labelers.
+ * The labelers of this library are registered by default. Labelers of other classes are
+ * constructed by reflection with their (String, TimeBoundaries) constructor, unless a factory
+ * has been registered for them.
+ */
+public class LabelerRegistry {
+
+    private static final Map<String, LabelerFactory> sFactories = new HashMap<String, LabelerFactory>();
+
+    static {
+        register(MinuteLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new MinuteLabeler(formatString, timeBoundaries);
+            }
+        });
+        register(HourLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new HourLabeler(formatString, timeBoundaries);
+            }
+        });
+        register(DayLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new DayLabeler(formatString, timeBoundaries);
+            }
+        });
+        register(DayWeekdayLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new DayWeekdayLabeler(formatString, timeBoundaries);
+            }
+        });
+        register(MonthDayWeekdayLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new MonthDayWeekdayLabeler(formatString, timeBoundaries);
+            }
+        });
+        register(WeekLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new WeekLabeler(formatString, timeBoundaries);
+            }
+        });
+        register(MonthLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new MonthLabeler(formatString, timeBoundaries);
+            }
+        });
+        register(MonthYearLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new MonthYearLabeler(formatString, timeBoundaries);
+            }
+        });
+        register(YearLabeler.class.getName(), new LabelerFactory() {
+            @Override
+            public TimeLabeler create(String formatString, TimeBoundaries timeBoundaries) {
+                return new YearLabeler(formatString, timeBoundaries);
+            }
+        });
+    }
+
+    private LabelerRegistry() {
+    }
+
+    /**
+     * Registers the factory for the given labelerClass name, replacing a previously registered one.
+     * The name does not have to be the name of an existing class.
+     */
+    public static void register(String className, LabelerFactory factory) {
+        synchronized (sFactories) {
+            sFactories.put(className, factory);
+        }
+    }
+
+    /**
+     * Removes the factory for the given labelerClass name, the labeler is then created by reflection.
+     */
+    public static void unregister(String className) {
+        synchronized (sFactories) {
+            sFactories.remove(className);
+        }
+    }
+
+    /**
+     * Creates the labeler for the given labelerClass name, with the registered factory or, if
+     * there is none, by reflection.
+     *
+     * @throws RuntimeException if the labeler cannot be created
+     */
+    public static TimeLabeler create(String className, String formatString, TimeBoundaries timeBoundaries) {
+        LabelerFactory factory;
+        synchronized (sFactories) {
+            factory = sFactories.get(className);
+        }
+        if (factory != null) {
+            return factory.create(formatString, timeBoundaries);
+        }
+        try {
+            Class<?> clazz = Class.forName(className);
+            Constructor<?> ctor = clazz.getConstructor(String.class, TimeBoundaries.class);
+            Object labeler = ctor.newInstance(formatString, timeBoundaries);
+            if (!(labeler instanceof TimeLabeler)) {
+                throw new RuntimeException("Labeler " + className + " must extend " + TimeLabeler.class.getName());
+            }
+            return (TimeLabeler) labeler;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to construct labeler " + className, e);
+        }
+    }
+}
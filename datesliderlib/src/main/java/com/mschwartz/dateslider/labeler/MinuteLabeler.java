@@ -7,43 +7,34 @@ import com.mschwartz.dateslider.TimeObject;
 import com.mschwartz.dateslider.timeview.TimeTextView;
 import com.mschwartz.dateslider.timeview.TimeView;
 
-import java.util.Calendar;
-import java.util.TimeZone;
-
 /**
  * A Labeler that displays minutes
  */
 public class MinuteLabeler extends Labeler {
 
-    private static String TAG = "MinuteLabeler";
-
+    /**
+     * Computes the minutes, this labeler only adds the views
+     */
+    private final MinuteTimeLabeler mTimeLabeler;
 
     public MinuteLabeler(String formatString, TimeBoundaries timeBoundaries) {
         super(formatString, timeBoundaries);
-    }
-
-    @Override
-    public TimeView createView(Context context, boolean isCenterView) {
-        return new TimeTextView(context, isCenterView, 18);
+        mTimeLabeler = new MinuteTimeLabeler(formatString, timeBoundaries);
     }
 
     @Override
     public TimeObject add(long time, int val) {
-        TimeObject result = Util.addMinutes(time, val, mFormatString, timeBoundaries);
-        //Log.i(TAG, "add " + val + ", " + result.toString());
-        return result;
+        return mTimeLabeler.add(time, val);
     }
 
     @Override
     public TimeObject getElem(long time) {
+        return mTimeLabeler.getElem(time);
+    }
 
-        Calendar c = Calendar.getInstance();
-        c.setTimeZone(timeBoundaries.timezone);
-        c.setTimeInMillis(time);
-
-        TimeObject result =  Util.getMinute(c, mFormatString, timeBoundaries);
-        //Log.i(TAG, "getElem " + result.toString());
-        return result;
+    @Override
+    public TimeView createView(Context context, boolean isCenterView) {
+        return new TimeTextView(context, isCenterView, 18);
     }
 
 }
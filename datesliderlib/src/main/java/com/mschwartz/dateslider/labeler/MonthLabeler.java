@@ -7,40 +7,34 @@ import com.mschwartz.dateslider.TimeObject;
 import com.mschwartz.dateslider.timeview.TimeTextView;
 import com.mschwartz.dateslider.timeview.TimeView;
 
-import java.util.Calendar;
-import java.util.TimeZone;
-
 /**
  * A Labeler that displays months
  */
 public class MonthLabeler extends Labeler {
 
-    private static String TAG = "MonthLabeler";
+    /**
+     * Computes the months, this labeler only adds the views
+     */
+    private final MonthTimeLabeler mTimeLabeler;
 
     public MonthLabeler(String formatString, TimeBoundaries timeBoundaries) {
         super(formatString, timeBoundaries);
+        mTimeLabeler = new MonthTimeLabeler(formatString, timeBoundaries);
     }
 
     @Override
     public TimeObject add(long time, int val) {
-        TimeObject result = Util.addMonths(time, val, mFormatString, timeBoundaries);
-        //Log.i(TAG, "add " + val + ", " + result.toString());
-        return result;
+        return mTimeLabeler.add(time, val);
     }
 
     @Override
-    public TimeView createView(Context context, boolean isCenterView) {
-        return new TimeTextView(context, isCenterView, 30);
+    public TimeObject getElem(long time) {
+        return mTimeLabeler.getElem(time);
     }
 
     @Override
-    public TimeObject getElem(long time) {
-        Calendar c = Calendar.getInstance();
-        c.setTimeZone(timeBoundaries.timezone);
-        c.setTimeInMillis(time);
-        TimeObject result = Util.getMonth(c, mFormatString, timeBoundaries);
-        //Log.i(TAG, "getElem " + result.toString());
-        return result;
+    public TimeView createView(Context context, boolean isCenterView) {
+        return new TimeTextView(context, isCenterView, 30);
     }
 
-}
\ No newline at end of file
+}
@@ -10,27 +10,36 @@ import com.mschwartz.dateslider.TimeObject;
 import com.mschwartz.dateslider.timeview.TimeTextView;
 import com.mschwartz.dateslider.timeview.TimeView;
 
-import java.util.Calendar;
-import java.util.TimeZone;
-
 /**
  * A customized Labeler that displays weeks using a CustomTimeTextView
  */
 public class WeekLabeler extends Labeler {
 
 
+    /**
+     * Computes the weeks, this labeler only adds the views
+     */
+    private final WeekTimeLabeler mTimeLabeler;
+
     public WeekLabeler(String formatString, TimeBoundaries timeBoundaries) {
         super(formatString, timeBoundaries);
+        mTimeLabeler = new WeekTimeLabeler(formatString, timeBoundaries);
     }
 
     @Override
     public TimeObject add(long time, int val) {
-        return Util.addWeeks(time, val, mFormatString, timeBoundaries);
+        return mTimeLabeler.add(time, val);
+    }
+
+    @Override
+    public TimeObject getElem(long time) {
+        return mTimeLabeler.getElem(time);
     }
 
     /**
      * create our customized TimeTextView and return it
      */
+    @Override
     public TimeView createView(Context context, boolean isCenterView) {
         return new CustomTimeTextView(context, isCenterView, 20);
     }
@@ -62,14 +71,4 @@ public class WeekLabeler extends Labeler {
         }
 
     }
-
-    @Override
-    public TimeObject getElem(long time) {
-        Calendar c = Calendar.getInstance();
-        c.setTimeZone(timeBoundaries.timezone);
-        c.setTimeInMillis(time);
-
-        return Util.getWeek(c, mFormatString, timeBoundaries);
-    }
-
 }
\ No newline at end of file
@@ -7,30 +7,29 @@ import com.mschwartz.dateslider.TimeObject;
 import com.mschwartz.dateslider.timeview.TimeTextView;
 import com.mschwartz.dateslider.timeview.TimeView;
 
-import java.util.Calendar;
-import java.util.TimeZone;
-
 /**
- * A Labeler that displays months
+ * A Labeler that displays years
  */
 public class YearLabeler extends Labeler {
 
+    /**
+     * Computes the years, this labeler only adds the views
+     */
+    private final YearTimeLabeler mTimeLabeler;
+
     public YearLabeler(String formatString, TimeBoundaries timeBoundaries) {
         super(formatString, timeBoundaries);
+        mTimeLabeler = new YearTimeLabeler(formatString, timeBoundaries);
     }
 
     @Override
     public TimeObject add(long time, int val) {
-        return Util.addYears(time, val, mFormatString, timeBoundaries);
+        return mTimeLabeler.add(time, val);
     }
 
     @Override
     public TimeObject getElem(long time) {
-
-        Calendar c = Calendar.getInstance();
-        c.setTimeZone(timeBoundaries.timezone);
-        c.setTimeInMillis(time);
-        return Util.getYear(c, mFormatString, timeBoundaries);
+        return mTimeLabeler.getElem(time);
     }
 
     @Override
@@ -38,5 +37,4 @@ public class YearLabeler extends Labeler {
         return new TimeTextView(context, isCenterView, 40);
     }
 
-
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package com.mschwartz.dateslider.timeview;
 
 import android.content.Context;
 
-import com.mschwartz.dateslider.R;
 import com.mschwartz.dateslider.TimeObject;
 
 import java.util.Calendar;
@@ -13,6 +12,16 @@ import java.util.Calendar;
  */
 public class DayWeekdayLayoutView extends TwoItemsLayoutView {
 
+    private static final int SUNDAY = 1;
+
+    private static final int OUT_OF_BOUNDS = 2;
+
+    /**
+     * The state the colours were last set for, a combination of SUNDAY and OUT_OF_BOUNDS, -1
+     * before the first bind
+     */
+    private int mColorState = -1;
+
     /**
      * Constructor
      *
@@ -29,9 +38,14 @@ public class DayWeekdayLayoutView extends TwoItemsLayoutView {
     @Override
     public void setTime(TimeObject to) {
         super.setTime(to);
-        Calendar c = Calendar.getInstance();
-        c.setTimeInMillis((to.startTime + to.endTime) / 2);
-        if (c.get(Calendar.DAY_OF_WEEK) == Calendar.SUNDAY) {
+        boolean sunday = to.getDayOfWeek() == Calendar.SUNDAY;
+        int colorState = (sunday ? SUNDAY : 0) | (to.outOfBounds ? OUT_OF_BOUNDS : 0);
+        if (colorState == mColorState) {
+            // the colours are already the ones of this state
+            return;
+        }
+        mColorState = colorState;
+        if (sunday) {
             colorMeSunday();
         } else {
             colorMeWorkday();
@@ -43,13 +57,9 @@ public class DayWeekdayLayoutView extends TwoItemsLayoutView {
      */
     protected void colorMeSunday() {
         if (timeObject.outOfBounds) return;
-        if (isCenter) {
-            bottomView.setTextColor(getResources().getColor(R.color.sundayBottomCenter));
-            topView.setTextColor(getResources().getColor(R.color.sundayTopCenter));
-        } else {
-            bottomView.setTextColor(getResources().getColor(R.color.sundayBottom));
-            topView.setTextColor(getResources().getColor(R.color.sundayTop));
-        }
+        TimeViewStyle style = getStyle();
+        bottomView.setTextColor(style.getSundayBottomColor(isCenter));
+        topView.setTextColor(style.getSundayTopColor(isCenter));
     }
 
 
@@ -58,13 +68,9 @@ public class DayWeekdayLayoutView extends TwoItemsLayoutView {
      */
     protected void colorMeWorkday() {
         if (timeObject.outOfBounds) return;
-        if (isCenter) {
-            topView.setTextColor(getResources().getColor(R.color.workdayTopCenter));
-            bottomView.setTextColor(getResources().getColor(R.color.workdayBottomCenter));
-        } else {
-            topView.setTextColor(getResources().getColor(R.color.workdayTop));
-            bottomView.setTextColor(getResources().getColor(R.color.workdayBottom));
-        }
+        TimeViewStyle style = getStyle();
+        topView.setTextColor(style.getWorkdayTopColor(isCenter));
+        bottomView.setTextColor(style.getWorkdayBottomColor(isCenter));
     }
 
 
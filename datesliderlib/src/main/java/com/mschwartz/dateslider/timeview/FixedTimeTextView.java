@@ -0,0 +1,111 @@
+package com.mschwartz.dateslider.timeview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.view.View;
+
+import com.mschwartz.dateslider.TimeObject;
+
+/**
+ * A TimeView which displays its label like a centered TimeTextView, but never requests a layout
+ * pass. Its size is taken from the LayoutParams only, and the text and the out of bounds
+ * background are drawn in onDraw(), so a new TimeObject only invalidates the view. A TextView
+ * requests a layout whenever its background changes, which reaches the ScrollLayout and the
+ * dialog around it on every scroll step over minTime or maxTime.
+ */
+public class FixedTimeTextView extends View implements TimeView {
+
+    /**
+     * The timeObject currently bound to this view
+     */
+    protected TimeObject timeObject;
+
+    private final TextPaint mPaint;
+
+    /**
+     * The text layout of the label, null if it must be created with the next draw
+     */
+    private StaticLayout mLayout;
+
+    /**
+     * The colours and backgrounds shared with the other children of the ScrollLayout
+     */
+    private TimeViewStyle mStyle;
+
+    /**
+     * The out of bounds backgrounds of this view, created when they are needed first
+     */
+    private final Drawable[] mBackgrounds = new Drawable[TimeViewStyle.OOB_COUNT];
+
+    /**
+     * The current out of bounds background, null if there is none
+     */
+    private Drawable mBackground;
+
+    /**
+     * @param paint the paint of the label, e.g. taken from a TimeTextView
+     */
+    public FixedTimeTextView(Context context, TextPaint paint) {
+        super(context);
+        mPaint = paint;
+    }
+
+    public void setTime(TimeObject timeObject) {
+        TimeObject old = this.timeObject;
+        this.timeObject = timeObject;
+        if (old == null || !TextUtils.equals(old.text, timeObject.text)) {
+            mLayout = null;
+            invalidate();
+        }
+        if (mStyle == null) {
+            mStyle = TimeViewStyle.of(this);
+        }
+        Drawable background = mStyle.getChildBackground(TimeViewStyle.oobIndex(timeObject), mBackgrounds);
+        if (background != mBackground) {
+            mBackground = background;
+            invalidate();
+        }
+    }
+
+    @Override
+    public TimeObject getTimeObject() {
+        return timeObject;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        // the size does not depend on the label
+        setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec),
+                getDefaultSize(getSuggestedMinimumHeight(), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mLayout = null;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (mBackground != null) {
+            mBackground.setBounds(0, 0, getWidth(), getHeight());
+            mBackground.draw(canvas);
+        }
+        if (timeObject == null) {
+            return;
+        }
+        if (mLayout == null) {
+            mLayout = new StaticLayout(timeObject.text, mPaint, getWidth(), Layout.Alignment.ALIGN_CENTER, 1, 0, false);
+        }
+        canvas.save();
+        canvas.translate(0, (getHeight() - mLayout.getHeight()) / 2f);
+        mLayout.draw(canvas);
+        canvas.restore();
+    }
+}
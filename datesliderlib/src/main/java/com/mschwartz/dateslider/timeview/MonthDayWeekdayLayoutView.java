@@ -50,10 +50,8 @@ public class MonthDayWeekdayLayoutView extends DayWeekdayLayoutView {
 
     @Override
     protected void setText() {
-        //super.setText();
-        String[] splitTime = timeObject.text.toString().split(" ");
-        verytopView.setText(splitTime[0]);
-        topView.setText(splitTime[1]);
-        bottomView.setText(splitTime[2]);
+        verytopView.setText(timeObject.primary);
+        topView.setText(timeObject.secondary);
+        bottomView.setText(timeObject.tertiary);
     }
 }
\ No newline at end of file
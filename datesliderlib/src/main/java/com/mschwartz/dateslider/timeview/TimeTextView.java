@@ -2,6 +2,7 @@ package com.mschwartz.dateslider.timeview;
 
 import android.content.Context;
 import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
 import android.support.v7.widget.AppCompatTextView;
 import android.util.TypedValue;
 import android.view.Gravity;
@@ -22,6 +23,16 @@ public class TimeTextView extends AppCompatTextView implements TimeView {
      */
     protected TimeObject timeObject;
 
+    /**
+     * The colours and backgrounds shared with the other children of the ScrollLayout
+     */
+    private TimeViewStyle mStyle;
+
+    /**
+     * The out of bounds backgrounds of this view, created when they are needed first
+     */
+    private final Drawable[] mBackgrounds = new Drawable[TimeViewStyle.OOB_COUNT];
+
     /**
      * constructor
      *
@@ -68,17 +79,21 @@ public class TimeTextView extends AppCompatTextView implements TimeView {
     }
 
     private void setOutOfBounds(TimeObject timeObject) {
-        if (timeObject.outOfBounds) {
-            setBackgroundResource(R.drawable.oob_background);
-        } else if (timeObject.oobLeft && timeObject.oobRight) {
-            setBackgroundResource(R.drawable.oob_left_right_background);
-        } else if (timeObject.oobLeft) {
-            setBackgroundResource(R.drawable.oob_left_background);
-        } else if (timeObject.oobRight) {
-            setBackgroundResource(R.drawable.oob_right_background);
-        } else {
-            setBackgroundResource(0);
+        // the view keeps its backgrounds, so an unchanged one is the same instance
+        Drawable background = getStyle().getChildBackground(TimeViewStyle.oobIndex(timeObject), mBackgrounds);
+        if (background != getBackground()) {
+            setBackgroundDrawable(background);
+        }
+    }
+
+    /**
+     * @return the style of the ScrollLayout of this view, looked up with the first bind
+     */
+    protected TimeViewStyle getStyle() {
+        if (mStyle == null) {
+            mStyle = TimeViewStyle.of(this);
         }
+        return mStyle;
     }
 
     @Override
@@ -0,0 +1,20 @@
+package com.mschwartz.dateslider.timeview;
+
+import android.content.Context;
+
+/**
+ * Creates the TimeViews which are put onto a ScrollLayout. The labeler class configured for
+ * a ScrollLayout must implement this interface in addition to extending
+ * {@link com.mschwartz.dateslider.labeler.TimeLabeler}.
+ */
+public interface TimeViewFactory {
+
+    /**
+     * Returns a new TimeView instance appropriate for population using TimeObjects.
+     *
+     * @param isCenterView is true when the view is the central view
+     * @return The new unpopulated TimeView object
+     */
+    public TimeView createView(Context context, boolean isCenterView);
+
+}
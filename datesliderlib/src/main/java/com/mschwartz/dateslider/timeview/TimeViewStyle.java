@@ -0,0 +1,195 @@
+package com.mschwartz.dateslider.timeview;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+import android.view.ViewParent;
+
+import com.mschwartz.dateslider.R;
+import com.mschwartz.dateslider.ScrollLayout;
+import com.mschwartz.dateslider.TimeObject;
+
+/**
+ * The colours and out of bounds backgrounds of the TimeViews, resolved once from the theme of a
+ * ScrollLayout and shared by all of its children. Every background resource is loaded once, but
+ * a Drawable keeps its bounds and the callback of the view it is attached to, so every view gets
+ * its own instances created from the constant state of the loaded one, and the ScrollLayout
+ * draws the shading of the strip with instances of its own.
+ * <p/>
+ * If the ScrollLayout shades the out of bounds times itself, the children get no backgrounds,
+ * see {@link #setChildBackgrounds(boolean)}.
+ */
+public class TimeViewStyle {
+
+    /**
+     * The index returned by {@link #oobIndex(TimeObject)} if a TimeObject is within the bounds
+     */
+    public static final int OOB_NONE = -1;
+
+    /**
+     * The number of out of bounds backgrounds, the length of the arrays passed to
+     * {@link #getChildBackground(int, Drawable[])}
+     */
+    public static final int OOB_COUNT = 4;
+
+    private static final int[] OOB_BACKGROUNDS = {
+            R.drawable.oob_background,
+            R.drawable.oob_left_right_background,
+            R.drawable.oob_left_background,
+            R.drawable.oob_right_background,
+    };
+
+    private final Resources mResources;
+
+    private final int mSundayTopColor;
+    private final int mSundayBottomColor;
+    private final int mSundayTopCenterColor;
+    private final int mSundayBottomCenterColor;
+    private final int mWorkdayTopColor;
+    private final int mWorkdayBottomColor;
+    private final int mWorkdayTopCenterColor;
+    private final int mWorkdayBottomCenterColor;
+    private final int mOobColor;
+
+    /**
+     * The backgrounds of OOB_BACKGROUNDS, loaded when they are needed first. They are only used
+     * to create the instances which are drawn and never drawn themselves.
+     */
+    private final Drawable[] mOobBackgrounds = new Drawable[OOB_COUNT];
+
+    /**
+     * The backgrounds the ScrollLayout draws itself, see {@link #getStripBackground(int)}
+     */
+    private final Drawable[] mStripBackgrounds = new Drawable[OOB_COUNT];
+
+    private boolean mChildBackgrounds = true;
+
+    public TimeViewStyle(Context context) {
+        mResources = context.getResources();
+        mSundayTopColor = mResources.getColor(R.color.sundayTop);
+        mSundayBottomColor = mResources.getColor(R.color.sundayBottom);
+        mSundayTopCenterColor = mResources.getColor(R.color.sundayTopCenter);
+        mSundayBottomCenterColor = mResources.getColor(R.color.sundayBottomCenter);
+        mWorkdayTopColor = mResources.getColor(R.color.workdayTop);
+        mWorkdayBottomColor = mResources.getColor(R.color.workdayBottom);
+        mWorkdayTopCenterColor = mResources.getColor(R.color.workdayTopCenter);
+        mWorkdayBottomCenterColor = mResources.getColor(R.color.workdayBottomCenter);
+        mOobColor = mResources.getColor(R.color.oobBackgroundColor);
+    }
+
+    /**
+     * Returns the style of the ScrollLayout the given view is a child of, or a new style for the
+     * context of the view if it is not part of a ScrollLayout. Views should keep the result.
+     */
+    public static TimeViewStyle of(View view) {
+        ViewParent parent = view.getParent();
+        if (parent instanceof ScrollLayout) {
+            return ((ScrollLayout) parent).getTimeViewStyle();
+        }
+        return new TimeViewStyle(view.getContext());
+    }
+
+    /**
+     * @return the index of the out of bounds background of the given TimeObject, OOB_NONE if it
+     * has none
+     */
+    public static int oobIndex(TimeObject timeObject) {
+        if (timeObject.outOfBounds) {
+            return 0;
+        } else if (timeObject.oobLeft && timeObject.oobRight) {
+            return 1;
+        } else if (timeObject.oobLeft) {
+            return 2;
+        } else if (timeObject.oobRight) {
+            return 3;
+        }
+        return OOB_NONE;
+    }
+
+    /**
+     * Sets whether the children show the out of bounds backgrounds. If not,
+     * {@link #getChildBackground(int, Drawable[])} returns null for every index.
+     */
+    public void setChildBackgrounds(boolean enabled) {
+        mChildBackgrounds = enabled;
+    }
+
+    public boolean hasChildBackgrounds() {
+        return mChildBackgrounds;
+    }
+
+    /**
+     * @param oobIndex    an index returned by {@link #oobIndex(TimeObject)}
+     * @param backgrounds the backgrounds of the view, an array of length {@link #OOB_COUNT}. A
+     *                    missing background is created and put into the array.
+     * @return the background of the view for the index, null if it shows none. The same
+     * instance is returned for the same state, so views can compare it with their current
+     * background to skip an unchanged one.
+     */
+    public Drawable getChildBackground(int oobIndex, Drawable[] backgrounds) {
+        if (!mChildBackgrounds || oobIndex == OOB_NONE) {
+            return null;
+        }
+        Drawable background = backgrounds[oobIndex];
+        if (background == null) {
+            background = newOobBackground(oobIndex);
+            backgrounds[oobIndex] = background;
+        }
+        return background;
+    }
+
+    /**
+     * @param oobIndex an index returned by {@link #oobIndex(TimeObject)}
+     * @return the background the ScrollLayout draws beneath the slot, null for OOB_NONE. It is
+     * not attached to any view, so its bounds can be set for every slot it is drawn for.
+     */
+    public Drawable getStripBackground(int oobIndex) {
+        if (oobIndex == OOB_NONE) {
+            return null;
+        }
+        Drawable background = mStripBackgrounds[oobIndex];
+        if (background == null) {
+            background = newOobBackground(oobIndex);
+            mStripBackgrounds[oobIndex] = background;
+        }
+        return background;
+    }
+
+    /**
+     * @return a new instance of the background for the index, sharing the state of the loaded
+     * resource
+     */
+    private Drawable newOobBackground(int oobIndex) {
+        Drawable background = mOobBackgrounds[oobIndex];
+        if (background == null) {
+            background = mResources.getDrawable(OOB_BACKGROUNDS[oobIndex]);
+            mOobBackgrounds[oobIndex] = background;
+        }
+        Drawable.ConstantState state = background.getConstantState();
+        return state != null ? state.newDrawable(mResources) : mResources.getDrawable(OOB_BACKGROUNDS[oobIndex]);
+    }
+
+    /**
+     * @return the colour of the times which are completely out of bounds
+     */
+    public int getOobColor() {
+        return mOobColor;
+    }
+
+    public int getSundayTopColor(boolean isCenter) {
+        return isCenter ? mSundayTopCenterColor : mSundayTopColor;
+    }
+
+    public int getSundayBottomColor(boolean isCenter) {
+        return isCenter ? mSundayBottomCenterColor : mSundayBottomColor;
+    }
+
+    public int getWorkdayTopColor(boolean isCenter) {
+        return isCenter ? mWorkdayTopCenterColor : mWorkdayTopColor;
+    }
+
+    public int getWorkdayBottomColor(boolean isCenter) {
+        return isCenter ? mWorkdayBottomCenterColor : mWorkdayBottomColor;
+    }
+}
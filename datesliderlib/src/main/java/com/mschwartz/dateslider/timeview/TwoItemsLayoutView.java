@@ -2,20 +2,19 @@ package com.mschwartz.dateslider.timeview;
 
 import android.content.Context;
 import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
 import android.util.TypedValue;
 import android.view.Gravity;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
-import com.mschwartz.dateslider.R;
 import com.mschwartz.dateslider.TimeObject;
 
 /**
  * This is a more complex implementation of the TimeView consisting of a LinearLayout with
  * two TimeViews. This allows primary text and sub-text, such as the name of the day
- * and the day of the month. This class expects the text that it is passed via
- * {@link #setTime(TimeObject)} to contain the primary
- * string followed by a space and then the secondary string.
+ * and the day of the month. The top TextView shows the primary part of the TimeObject
+ * passed via {@link #setTime(TimeObject)} and the bottom TextView its secondary part.
  */
 public class TwoItemsLayoutView extends LinearLayout implements TimeView {
 
@@ -24,6 +23,16 @@ public class TwoItemsLayoutView extends LinearLayout implements TimeView {
      */
     protected TimeObject timeObject;
 
+    /**
+     * The colours and backgrounds shared with the other children of the ScrollLayout
+     */
+    private TimeViewStyle mStyle;
+
+    /**
+     * The out of bounds backgrounds of this view, created when they are needed first
+     */
+    private final Drawable[] mBackgrounds = new Drawable[TimeViewStyle.OOB_COUNT];
+
     protected boolean isCenter = false;
 
     protected TextView topView;
@@ -93,26 +102,29 @@ public class TwoItemsLayoutView extends LinearLayout implements TimeView {
     }
 
     /**
-     * sets the TextView texts by splitting the text into two
+     * sets the TextView texts to the first two parts of the label
      */
     protected void setText() {
-        String[] splitTime = timeObject.text.toString().split(" ");
-        topView.setText(splitTime[0]);
-        bottomView.setText(splitTime[1]);
+        topView.setText(timeObject.primary);
+        bottomView.setText(timeObject.secondary);
     }
 
     private void setOutOfBounds(TimeObject timeObject) {
-        if (timeObject.outOfBounds) {
-            setBackgroundResource(R.drawable.oob_background);
-        } else if (timeObject.oobLeft && timeObject.oobRight) {
-            setBackgroundResource(R.drawable.oob_left_right_background);
-        } else if (timeObject.oobLeft) {
-            setBackgroundResource(R.drawable.oob_left_background);
-        } else if (timeObject.oobRight) {
-            setBackgroundResource(R.drawable.oob_right_background);
-        } else {
-            setBackgroundResource(0);
+        // the view keeps its backgrounds, so an unchanged one is the same instance
+        Drawable background = getStyle().getChildBackground(TimeViewStyle.oobIndex(timeObject), mBackgrounds);
+        if (background != getBackground()) {
+            setBackgroundDrawable(background);
+        }
+    }
+
+    /**
+     * @return the style of the ScrollLayout of this view, looked up with the first bind
+     */
+    protected TimeViewStyle getStyle() {
+        if (mStyle == null) {
+            mStyle = TimeViewStyle.of(this);
         }
+        return mStyle;
     }
 
 
@@ -0,0 +1,138 @@
+package com.mschwartz.dateslider.dateslidertest.dateslidertest;
+
+import android.content.Context;
+import android.test.InstrumentationTestCase;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import com.mschwartz.dateslider.ScrollLayout;
+import com.mschwartz.dateslider.SliderContainer;
+import com.mschwartz.dateslider.TimeBoundaries;
+import com.mschwartz.dateslider.dateslidertest.R;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Counts the layout passes requested while the ScrollLayouts of a slider are scrolled over
+ * minTime and maxTime, where the children change their out of bounds background.
+ */
+public class LayoutPassTest extends InstrumentationTestCase {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 1920;
+
+    /**
+     * The number of scroll steps in each direction
+     */
+    private static final int STEPS = 300;
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    public void testFixedSizeViewsNeverRequestLayout() throws Throwable {
+        assertEquals(0, countLayoutRequests(true));
+    }
+
+    /**
+     * Makes sure the scrolling of the test reaches the children: TextViews request a layout
+     * when their background changes
+     */
+    public void testTextViewsRequestLayout() throws Throwable {
+        assertTrue(countLayoutRequests(false) > 0);
+    }
+
+    private int countLayoutRequests(final boolean fixedSizeViews) throws Throwable {
+        final int[] count = new int[1];
+        runTestOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                count[0] = scrollSlider(fixedSizeViews);
+            }
+        });
+        return count[0];
+    }
+
+    private int scrollSlider(boolean fixedSizeViews) {
+        Context context = new ContextThemeWrapper(getInstrumentation().getTargetContext(), R.style.AppTheme);
+        SliderContainer container = (SliderContainer) LayoutInflater.from(context)
+                .inflate(com.mschwartz.dateslider.R.layout.customdateslider, null);
+        List<ScrollLayout> rows = new ArrayList<ScrollLayout>();
+        for (int i = 0; i < container.getChildCount(); i++) {
+            View child = container.getChildAt(i);
+            if (child instanceof ScrollLayout) {
+                // the children are created with the first layout pass
+                ((ScrollLayout) child).setFixedSizeViews(fixedSizeViews);
+                rows.add((ScrollLayout) child);
+            }
+        }
+        Calendar time = Calendar.getInstance();
+        TimeBoundaries timeBoundaries = new TimeBoundaries();
+        timeBoundaries.setMinTime(time.getTimeInMillis() - 10 * DAY);
+        timeBoundaries.setMaxTime(time.getTimeInMillis() + 10 * DAY);
+        container.setTime(time, timeBoundaries);
+
+        LayoutCountingFrameLayout root = new LayoutCountingFrameLayout(context);
+        root.addView(container);
+        // the ScrollLayouts add their children while they are laid out, which needs another pass
+        for (int i = 0; i < 3; i++) {
+            layoutIfRequested(root);
+        }
+        assertFalse(root.isLayoutRequested());
+        root.layoutRequests = 0;
+
+        for (ScrollLayout row : rows) {
+            int step = row.getWidth() / 7;
+            int x = row.getModel().getScrollX();
+            // to the earliest time and back to the latest one, the scrolling stops at the limits
+            for (int i = 0; i < STEPS; i++) {
+                x -= step;
+                row.scrollTo(x, 0);
+                x = row.getModel().getScrollX();
+                layoutIfRequested(root);
+            }
+            for (int i = 0; i < 2 * STEPS; i++) {
+                x += step;
+                row.scrollTo(x, 0);
+                x = row.getModel().getScrollX();
+                layoutIfRequested(root);
+            }
+        }
+        return root.layoutRequests;
+    }
+
+    /**
+     * Runs the layout pass the next frame would run
+     */
+    private static void layoutIfRequested(View root) {
+        if (root.isLayoutRequested()) {
+            root.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            root.layout(0, 0, WIDTH, HEIGHT);
+        }
+    }
+
+    /**
+     * Counts the layout requests which reach the top of the view hierarchy. A request only
+     * reaches it if no layout pass is pending, so every count is one layout pass.
+     */
+    private static class LayoutCountingFrameLayout extends FrameLayout {
+
+        int layoutRequests;
+
+        LayoutCountingFrameLayout(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void requestLayout() {
+            if (!isLayoutRequested()) {
+                layoutRequests++;
+            }
+            super.requestLayout();
+        }
+    }
+}